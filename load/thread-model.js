@@ -0,0 +1,80 @@
+// HTTP load for comparing Tomcat's platform thread pool with virtual threads (user-facing counterpart of
+// the synthetic ThreadModelBenchmark in src/jmh).
+//
+// Run the application once per mode against the same database, then the same script against each:
+//
+//   SPRING_PROFILES_ACTIVE=local VIRTUAL_THREADS_ENABLED=false java -jar build/libs/kcdevdes-0.0.1-SNAPSHOT.jar
+//   k6 run -e VUS=1000 -e DURATION=2m load/thread-model.js
+//
+//   SPRING_PROFILES_ACTIVE=local VIRTUAL_THREADS_ENABLED=true java -jar build/libs/kcdevdes-0.0.1-SNAPSHOT.jar
+//   k6 run -e VUS=1000 -e DURATION=2m load/thread-model.js
+//
+// Repeat with VUS=10000 (raise the load generator's open file limit first). Compare the http_req_duration
+// percentiles, http_reqs rate and http_req_failed, per endpoint through the "name" tag; the pool and queue
+// meters at /actuator/prometheus on the management port show where requests waited.
+//
+// Options (-e): BASE_URL (default http://localhost:8080), VUS (1000), RAMP (30s), DURATION (2m), USERS (20).
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+const USERS = parseInt(__ENV.USERS || '20', 10);
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+    scenarios: {
+        readers: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: __ENV.RAMP || '30s', target: VUS },
+                { duration: __ENV.DURATION || '2m', target: VUS },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+// Seed users once; logins stay below the per-IP login throttle
+export function setup() {
+    const run = Date.now().toString(36);
+    const users = [];
+    for (let i = 0; i < USERS; i++) {
+        const email = `load-${run}-${i}@poppick.com`;
+        const password = 'load-test-password';
+        const signup = http.post(`${BASE_URL}/v1/auth/signup`,
+            JSON.stringify({ email, username: `loader${i}`, password }), { headers: JSON_HEADERS });
+        check(signup, { 'signup 201': (r) => r.status === 201 });
+        const login = http.post(`${BASE_URL}/v1/auth/login`,
+            JSON.stringify({ email, password }), { headers: JSON_HEADERS });
+        check(login, { 'login 200': (r) => r.status === 200 });
+        users.push({ id: signup.json('id'), accessToken: login.json('accessToken') });
+    }
+    return { users };
+}
+
+// Mostly public profile reads, some batch reads and authenticated /me reads
+export default function (data) {
+    const users = data.users;
+    const user = users[Math.floor(Math.random() * users.length)];
+    const roll = Math.random();
+
+    if (roll < 0.7) {
+        const res = http.get(`${BASE_URL}/v1/users/${user.id}`, { tags: { name: 'GET /v1/users/{id}' } });
+        check(res, { 'profile 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        const ids = users.slice(0, 10).map((u) => u.id).join(',');
+        const res = http.get(`${BASE_URL}/v1/users/batch?ids=${ids}`, { tags: { name: 'GET /v1/users/batch' } });
+        check(res, { 'batch 200': (r) => r.status === 200 });
+    } else {
+        const res = http.get(`${BASE_URL}/v1/users/me`, {
+            headers: { Authorization: `Bearer ${user.accessToken}` },
+            tags: { name: 'GET /v1/users/me' },
+        });
+        check(res, { 'me 200': (r) => r.status === 200 });
+    }
+}
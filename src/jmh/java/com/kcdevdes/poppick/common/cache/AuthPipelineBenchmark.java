@@ -0,0 +1,68 @@
+package com.kcdevdes.poppick.common.cache;
+
+import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.provider.JwtProviders;
+import com.kcdevdes.poppick.common.security.AuthenticatedUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling cost of GET /v1/users/me.
+ * "legacy" replays the former filter + controller sequence (validate, authenticate, re-parse for the email),
+ * "singleParse" is the current uncached path and "cached" a verified-token cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthPipelineBenchmark {
+
+    private JwtProvider jwtProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = JwtProviders.create("jjwt");
+        verifiedTokenCache = new VerifiedTokenCache(new VerifiedTokenCacheProperties());
+
+        Authentication login = new UsernamePasswordAuthenticationToken(
+                "viewer@poppick.com", null, List.of(new SimpleGrantedAuthority("USER")));
+        accessToken = jwtProvider.generateToken(login).getAccessToken();
+
+        Authentication authentication = jwtProvider.authenticate(accessToken);
+        verifiedTokenCache.put(accessToken, authentication,
+                ((AuthenticatedUser) authentication.getPrincipal()).expiresAt());
+    }
+
+    @Benchmark
+    public String legacy() {
+        if (!jwtProvider.validateToken(accessToken)) {
+            return null;
+        }
+        jwtProvider.getAuthentication(accessToken);
+        return jwtProvider.getEmailFromToken(accessToken);
+    }
+
+    @Benchmark
+    public String singleParse() {
+        Authentication authentication = jwtProvider.authenticate(accessToken);
+        return ((AuthenticatedUser) authentication.getPrincipal()).email();
+    }
+
+    @Benchmark
+    public String cached() {
+        Authentication authentication = verifiedTokenCache.get(accessToken);
+        return ((AuthenticatedUser) authentication.getPrincipal()).email();
+    }
+}
@@ -0,0 +1,106 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waves of 1k / 10k concurrent requests on Tomcat's default 200 platform threads versus one virtual thread
+ * per request. Each request blocks for a few milliseconds like a cache hit with downstream I/O, and every
+ * tenth one also holds a pooled connection (in-memory H2 behind {@link BoundedDataSource}) for a query with
+ * simulated network latency. One operation is a whole wave; lower is better.
+ * <p>
+ * This is a synthetic stand-in: no HTTP, Spring or PostgreSQL is involved. End-to-end numbers for both modes
+ * come from running load/thread-model.js (k6) against the application with VIRTUAL_THREADS_ENABLED=false and true.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class ThreadModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+    private static final long IO_MILLIS = 2;
+    private static final long QUERY_MILLIS = 1;
+    private static final int DB_EVERY = 10;
+
+    @Param({"1000", "10000"})
+    public int connections;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:threads;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(POOL_SIZE);
+        pool.setConnectionTimeout(60_000);
+        dataSource = new BoundedDataSource(pool, POOL_SIZE, 60_000);
+
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public long wave() throws Exception {
+        List<Future<Long>> responses = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            boolean usesDatabase = i % DB_EVERY == 0;
+            responses.add(executor.submit(() -> handle(usesDatabase)));
+        }
+        long sum = 0;
+        for (Future<Long> response : responses) {
+            sum += response.get();
+        }
+        return sum;
+    }
+
+    private long handle(boolean usesDatabase) throws Exception {
+        Thread.sleep(IO_MILLIS);
+        if (!usesDatabase) {
+            return 1;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + ThreadLocalRandom.current().nextInt(1000))) {
+            Thread.sleep(QUERY_MILLIS);
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.kcdevdes.poppick.common.metrics;
+
+import com.kcdevdes.poppick.common.metrics.AuthOutcomeMetrics.Operation;
+import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.provider.JwtProviders;
+import com.kcdevdes.poppick.dto.response.JwtResponseDto;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the hot-path instrumentation.
+ * <p>
+ * {@code none} runs the token paths on the bare codec, {@code prometheus} through the timed codec registered
+ * on a Prometheus registry, as in production; the difference is the per-call overhead. The timer and counter
+ * benchmarks isolate the raw metric update, and {@code scrape} the cost of one Prometheus scrape.
+ * Run the contended variants with -t to see the histogram under concurrent updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"none", "prometheus"})
+    private String registry;
+
+    private PrometheusMeterRegistry meterRegistry;
+    private JwtProvider jwtProvider;
+    private Timer timer;
+    private AuthOutcomeMetrics authOutcomeMetrics;
+    private Authentication login;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        jwtProvider = JwtProviders.create("compact", "prometheus".equals(registry) ? meterRegistry : null);
+        timer = Timer.builder("benchmark.timer")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+        authOutcomeMetrics = new AuthOutcomeMetrics(meterRegistry);
+
+        login = new UsernamePasswordAuthenticationToken(
+                "viewer@poppick.com", null, List.of(new SimpleGrantedAuthority("USER")));
+        accessToken = jwtProvider.generateToken(login).getAccessToken();
+    }
+
+    @Benchmark
+    public JwtResponseDto generateToken() {
+        return jwtProvider.generateToken(login);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return jwtProvider.authenticate(accessToken);
+    }
+
+    @Benchmark
+    public void timerRecord() {
+        timer.record(25_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void timerRecordContended() {
+        timer.record(25_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public String authOutcome() {
+        return authOutcomeMetrics.record(Operation.LOGIN, () -> accessToken);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String scrape() {
+        return meterRegistry.scrape();
+    }
+}
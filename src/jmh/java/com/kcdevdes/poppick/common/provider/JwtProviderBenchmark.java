@@ -0,0 +1,53 @@
+package com.kcdevdes.poppick.common.provider;
+
+import com.kcdevdes.poppick.dto.response.JwtResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtProviderBenchmark {
+
+    @Param({"compact", "jjwt"})
+    private String codec;
+
+    private JwtProvider jwtProvider;
+    private Authentication login;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = JwtProviders.create(codec);
+        login = new UsernamePasswordAuthenticationToken(
+                "viewer@poppick.com", null, List.of(new SimpleGrantedAuthority("USER")));
+        accessToken = jwtProvider.generateToken(login).getAccessToken();
+    }
+
+    @Benchmark
+    public JwtResponseDto generateToken() {
+        return jwtProvider.generateToken(login);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtProvider.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return jwtProvider.getAuthentication(accessToken);
+    }
+}
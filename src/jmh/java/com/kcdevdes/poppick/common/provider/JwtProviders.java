@@ -0,0 +1,25 @@
+package com.kcdevdes.poppick.common.provider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds a {@link JwtProvider} outside of the Spring context for benchmarks
+ */
+public final class JwtProviders {
+
+    public static final String SECRET = "70371cbf01ff4aa7c98b92714df5be8213c7bc5c32c168645126947f91a4a3c3";
+
+    private JwtProviders() {
+    }
+
+    public static JwtProvider create(String codec) {
+        return create(codec, null);
+    }
+
+    public static JwtProvider create(String codec, MeterRegistry meterRegistry) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setCodec(codec);
+        return new JwtProvider(properties, null, null, meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import com.kcdevdes.poppick.common.provider.JwtProviders;
+import io.jsonwebtoken.io.Decoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the codecs on valid and tampered tokens.
+ * The setup refuses to run unless tokens from each codec verify with the other one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenCodecBenchmark {
+
+    @Param({"compact", "jjwt"})
+    private String codec;
+
+    private TokenCodec tokenCodec;
+    private TokenClaims claims;
+    private String validToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = Decoders.BASE64.decode(JwtProviders.SECRET);
+        TokenCodec compact = new CompactHs256TokenCodec(secret);
+        TokenCodec jjwt = new JjwtTokenCodec(secret);
+        tokenCodec = "jjwt".equals(codec) ? jjwt : compact;
+
+        claims = new TokenClaims("viewer@poppick.com", "USER", System.currentTimeMillis() / 1000L + 3600);
+        checkCompatible(compact, jjwt);
+        checkCompatible(jjwt, compact);
+
+        validToken = tokenCodec.encode(claims);
+        char last = validToken.charAt(validToken.length() - 2);
+        tamperedToken = validToken.substring(0, validToken.length() - 2)
+                + (last == 'A' ? 'B' : 'A') + validToken.charAt(validToken.length() - 1);
+    }
+
+    @Benchmark
+    public String encode() {
+        return tokenCodec.encode(claims);
+    }
+
+    @Benchmark
+    public TokenVerification decodeValid() {
+        return tokenCodec.decode(validToken);
+    }
+
+    @Benchmark
+    public TokenVerification decodeTampered() {
+        return tokenCodec.decode(tamperedToken);
+    }
+
+    private void checkCompatible(TokenCodec issuer, TokenCodec verifier) {
+        TokenVerification verification = verifier.decode(issuer.encode(claims));
+        if (!verification.isValid() || !claims.equals(verification.claims())) {
+            throw new IllegalStateException(verifier.getClass().getSimpleName()
+                    + " rejected a token issued by " + issuer.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.kcdevdes.poppick.common.util;
+
+import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.dto.response.UserResponseDto;
+import com.kcdevdes.poppick.entity.Role;
+import com.kcdevdes.poppick.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapper();
+    private final LimitedUserMapper limitedUserMapper = new LimitedUserMapper();
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("poppick_streamer", "streamer@poppick.com", "https://cdn.poppick.com/p/1.png", Role.USER);
+        user.setId(42);
+        user.setOauthProvider("google");
+        user.setOauthId("109876543210987654321");
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        user.setUpdatedAt(LocalDateTime.of(2025, 1, 31, 18, 30));
+    }
+
+    @Benchmark
+    public UserResponseDto userMapperToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public LimitedUserResponseDto limitedUserMapperToDto() {
+        return limitedUserMapper.toDto(user);
+    }
+}
@@ -0,0 +1,115 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.common.util.LimitedUserMapper;
+import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.entity.Role;
+import com.kcdevdes.poppick.entity.User;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database side of GET /v1/users/{id} on a cache miss, against in-memory H2 with concurrent callers.
+ * "managedEntity" is the former path (read-write transaction, managed entity, mapper),
+ * "readOnlyEntity" the same with a read-only session and manual flush, and "projection"
+ * the current {@link UserSnapshot} constructor query. Compare gc.alloc.rate.norm for allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class UserReadPathBenchmark {
+
+    private static final int USERS = 1000;
+    private static final String SNAPSHOT_QUERY = "SELECT new com.kcdevdes.poppick.repository.UserSnapshot("
+            + "u.id, u.email, u.username, u.role, u.profileImage, u.oauthProvider, u.oauthId, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.id = :id";
+
+    private final LimitedUserMapper limitedUserMapper = new LimitedUserMapper();
+    private SessionFactory sessionFactory;
+    private int firstId;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .setProperty("jakarta.persistence.jdbc.url", "jdbc:h2:mem:users;DB_CLOSE_DELAY=-1")
+                .setProperty("jakarta.persistence.jdbc.user", "sa")
+                .setProperty("hibernate.connection.pool_size", "8")
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < USERS; i++) {
+                User user = new User("streamer_" + i, "streamer" + i + "@poppick.com",
+                        "https://cdn.poppick.com/p/" + i + ".png", Role.USER);
+                session.persist(user);
+                if (i == 0) {
+                    session.flush();
+                    firstId = user.getId();
+                }
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public LimitedUserResponseDto managedEntity() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            User user = session.find(User.class, randomId());
+            LimitedUserResponseDto dto = limitedUserMapper.toDto(user);
+            session.getTransaction().commit();
+            return dto;
+        }
+    }
+
+    @Benchmark
+    public LimitedUserResponseDto readOnlyEntity() {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.beginTransaction();
+            User user = session.find(User.class, randomId());
+            LimitedUserResponseDto dto = limitedUserMapper.toDto(user);
+            session.getTransaction().commit();
+            return dto;
+        }
+    }
+
+    @Benchmark
+    public LimitedUserResponseDto projection() {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.beginTransaction();
+            UserSnapshot snapshot = session.createQuery(SNAPSHOT_QUERY, UserSnapshot.class)
+                    .setParameter("id", randomId())
+                    .getSingleResult();
+            LimitedUserResponseDto dto = limitedUserMapper.toDto(snapshot);
+            session.getTransaction().commit();
+            return dto;
+        }
+    }
+
+    private int randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(USERS);
+    }
+}
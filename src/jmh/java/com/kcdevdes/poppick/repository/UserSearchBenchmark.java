@@ -0,0 +1,95 @@
+package com.kcdevdes.poppick.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /v1/users search at increasing page depths on a seeded 10M-row users table.
+ * "keyset" is the repository query, "offset" the LIMIT/OFFSET equivalent it replaces.
+ * <p>
+ * Needs a scratch PostgreSQL database with pg_trgm available, e.g.
+ * {@code -Dbench.db.url=jdbc:postgresql://localhost:5432/poppick_bench}. The schema is migrated with Flyway
+ * and seeded once (several minutes); later runs reuse it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserSearchBenchmark {
+
+    private static final int ROWS = 10_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String OFFSET_QUERY = "SELECT id, email, username, role, profile_image, oauth_provider, "
+            + "oauth_id, created_at, updated_at FROM users WHERE lower(username) COLLATE \"C\" LIKE lower(?) "
+            + "ORDER BY lower(username) COLLATE \"C\", id LIMIT ? OFFSET ?";
+
+    @Param({"0", "100", "10000"})
+    public int page;
+
+    @Param({"s", "stream"})
+    public String term;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserRepositoryImpl repository;
+    private String afterUsername;
+    private Integer afterId;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/poppick_bench"),
+                System.getProperty("bench.db.user", "postgres"),
+                System.getProperty("bench.db.password", "db_secret"));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new UserRepositoryImpl(jdbcTemplate);
+
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        if (count == null || count < ROWS) {
+            // Usernames share a few prefixes like real handles do, so "s" and "stream" match large ranges
+            jdbcTemplate.update("INSERT INTO users (email, username, role) "
+                    + "SELECT 'bench' || g || '@poppick.com', "
+                    + "(ARRAY['stream', 'star', 'sky', 'pop', 'pick'])[1 + (g % 5)::int] || '_' || md5(g::text)::varchar(20), "
+                    + "'USER' FROM generate_series(?::int, ?::int) g ON CONFLICT DO NOTHING",
+                    count == null ? 1 : count.intValue() + 1, ROWS);
+            jdbcTemplate.execute("ANALYZE users");
+        }
+
+        // Position the keyset cursor where the offset query starts
+        afterUsername = null;
+        afterId = null;
+        if (page > 0) {
+            List<Map<String, Object>> last = jdbcTemplate.queryForList(
+                    "SELECT username, id FROM users WHERE lower(username) COLLATE \"C\" LIKE lower(?) "
+                            + "ORDER BY lower(username) COLLATE \"C\", id LIMIT 1 OFFSET ?",
+                    term + "%", page * PAGE_SIZE - 1);
+            if (!last.isEmpty()) {
+                afterUsername = (String) last.get(0).get("username");
+                afterId = (Integer) last.get(0).get("id");
+            }
+        }
+    }
+
+    @Benchmark
+    public List<UserSnapshot> keyset() {
+        return repository.searchByUsername(term, true, afterUsername, afterId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> offset() {
+        return jdbcTemplate.queryForList(OFFSET_QUERY, term + "%", PAGE_SIZE, page * PAGE_SIZE);
+    }
+}
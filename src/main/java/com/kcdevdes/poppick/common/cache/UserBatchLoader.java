@@ -0,0 +1,132 @@
+package com.kcdevdes.poppick.common.cache;
+
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent batch lookups of the same users.
+ * <p>
+ * Every id has at most one query in flight across all callers. A caller queries only the ids nobody else
+ * is loading, in one statement, and waits for the rest. Overlays of many viewers refreshing the same
+ * leaderboard at once therefore cost one query per distinct id instead of one per viewer.
+ */
+@Component
+public class UserBatchLoader {
+
+    private final Map<Integer, CompletableFuture<Optional<UserSnapshot>>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMillis;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queriedIds = new LongAdder();
+    private final LongAdder coalescedIds = new LongAdder();
+
+    public UserBatchLoader(UserBatchLoaderProperties properties) {
+        this.waitTimeoutMillis = properties.getWaitTimeoutMs();
+    }
+
+    /**
+     * Load users by id, sharing in-flight queries with concurrent callers
+     *
+     * @param ids   distinct ids
+     * @param query loads the given ids in one statement
+     * @return found users by id, missing ids are absent
+     * @throws DomainException 503 if a shared query does not complete in time
+     */
+    public Map<Integer, UserSnapshot> load(Collection<Integer> ids, Function<List<Integer>, List<UserSnapshot>> query) {
+        Map<Integer, CompletableFuture<Optional<UserSnapshot>>> owned = new LinkedHashMap<>();
+        Map<Integer, CompletableFuture<Optional<UserSnapshot>>> shared = new HashMap<>();
+        for (Integer id : ids) {
+            CompletableFuture<Optional<UserSnapshot>> future = new CompletableFuture<>();
+            CompletableFuture<Optional<UserSnapshot>> existing = inFlight.putIfAbsent(id, future);
+            if (existing == null) {
+                owned.put(id, future);
+            } else {
+                shared.put(id, existing);
+            }
+        }
+
+        Map<Integer, UserSnapshot> result = new HashMap<>();
+        if (!owned.isEmpty()) {
+            queries.increment();
+            queriedIds.add(owned.size());
+            try {
+                for (UserSnapshot snapshot : query.apply(new ArrayList<>(owned.keySet()))) {
+                    result.put(snapshot.id(), snapshot);
+                }
+                owned.forEach((id, future) -> future.complete(Optional.ofNullable(result.get(id))));
+            } catch (RuntimeException e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        coalescedIds.add(shared.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        for (Map.Entry<Integer, CompletableFuture<Optional<UserSnapshot>>> entry : shared.entrySet()) {
+            await(entry.getValue(), deadline).ifPresent(snapshot -> result.put(entry.getKey(), snapshot));
+        }
+        return result;
+    }
+
+    /**
+     * Get a snapshot of the loader counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        return new Stats(queries.sum(), queriedIds.sum(), coalescedIds.sum(), inFlight.size());
+    }
+
+    private Optional<UserSnapshot> await(CompletableFuture<Optional<UserSnapshot>> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DomainException(ErrorCode.USER_LOOKUP_INTERRUPTED);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new DomainException(ErrorCode.USER_LOOKUP_FAILED);
+        }
+    }
+
+    /**
+     * @param queries      batch statements issued
+     * @param queriedIds   ids loaded by those statements
+     * @param coalescedIds ids served by another caller's statement
+     * @param inFlight     ids currently being loaded
+     */
+    public record Stats(long queries, long queriedIds, long coalescedIds, int inFlight) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "user.batch")
+class UserBatchLoaderProperties {
+    /**
+     * How long a caller waits for ids loaded by another caller
+     */
+    private long waitTimeoutMs = 2000;
+}
@@ -0,0 +1,319 @@
+package com.kcdevdes.poppick.common.cache;
+
+import com.kcdevdes.poppick.common.datasource.ReadYourWritesTracker;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link UserSnapshot} projections.
+ * <p>
+ * The first tier holds snapshots by id, the second maps emails to ids, so both lookups share one copy
+ * and one invalidation. Snapshots are immutable and carry no password hash; writers load the entity
+ * from the repository instead.
+ * <p>
+ * Writers call {@link #evict(Integer, String)} inside their transaction. The entry is dropped locally right
+ * away and again after commit, and other nodes are notified through the {@link UserCacheInvalidationChannel}.
+ * Loads that overlap an invalidation are not cached, so a reader cannot put back a row that was just replaced.
+ * Every invalidation, local or remote, is also reported to the {@link ReadYourWritesTracker} so the reload
+ * is not served by a lagging replica.
+ */
+@Component
+public class UserCache {
+
+    private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Integer> byEmail = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final UserCacheInvalidationChannel invalidationChannel;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public UserCache(
+            UserCacheProperties properties,
+            UserCacheInvalidationChannel invalidationChannel,
+            ReadYourWritesTracker readYourWritesTracker) {
+        this.maxSize = properties.getMaxSize();
+        this.ttlMillis = properties.getTtlSeconds() * 1000L;
+        this.invalidationChannel = invalidationChannel;
+        this.readYourWritesTracker = readYourWritesTracker;
+        invalidationChannel.subscribe(new UserCacheInvalidationChannel.Listener() {
+            @Override
+            public void invalidated(Integer id, String email, long sentAtMillis) {
+                onRemoteInvalidation(id, email, sentAtMillis);
+            }
+
+            @Override
+            public void reset() {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Get a user by id, loading it on a miss
+     *
+     * @param id
+     * @param loader repository lookup
+     * @return UserSnapshot
+     */
+    public Optional<UserSnapshot> getById(Integer id, Supplier<Optional<UserSnapshot>> loader) {
+        Entry entry = maxSize > 0 ? byId.get(id) : null;
+        return lookup(entry, loader);
+    }
+
+    /**
+     * Get a cached user by id without loading it
+     *
+     * @param id
+     * @return UserSnapshot, empty on a miss
+     */
+    public Optional<UserSnapshot> peekById(Integer id) {
+        Entry entry = maxSize > 0 ? byId.get(id) : null;
+        return peek(entry);
+    }
+
+    /**
+     * Get a cached user by email without loading it
+     *
+     * @param email
+     * @return UserSnapshot, empty on a miss
+     */
+    public Optional<UserSnapshot> peekByEmail(String email) {
+        Integer id = maxSize > 0 ? byEmail.get(emailKey(email)) : null;
+        Entry entry = id != null ? byId.get(id) : null;
+        if (entry != null && !entry.snapshot().email().equalsIgnoreCase(email)) {
+            entry = null;
+        }
+        return peek(entry);
+    }
+
+    /**
+     * Get several users by id, loading all misses with one call
+     *
+     * @param ids    distinct ids
+     * @param loader repository lookup of the missing ids
+     * @return found users by id, missing ids are absent
+     */
+    public Map<Integer, UserSnapshot> getAllById(Collection<Integer> ids,
+                                                 Function<List<Integer>, Map<Integer, UserSnapshot>> loader) {
+        long now = System.currentTimeMillis();
+        Map<Integer, UserSnapshot> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Entry entry = maxSize > 0 ? byId.get(id) : null;
+            if (entry != null && now < entry.expiresAt()) {
+                result.put(id, entry.snapshot());
+            } else {
+                missing.add(id);
+            }
+        }
+        hits.add(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.add(missing.size());
+        long loadGeneration = generation.get();
+        Map<Integer, UserSnapshot> loaded = loader.apply(missing);
+        loaded.values().forEach(snapshot -> put(snapshot, now, loadGeneration));
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Get a user by email, loading it on a miss
+     *
+     * @param email
+     * @param loader repository lookup
+     * @return UserSnapshot
+     */
+    public Optional<UserSnapshot> getByEmail(String email, Supplier<Optional<UserSnapshot>> loader) {
+        Integer id = maxSize > 0 ? byEmail.get(emailKey(email)) : null;
+        Entry entry = id != null ? byId.get(id) : null;
+        if (entry != null && !entry.snapshot().email().equalsIgnoreCase(email)) {
+            entry = null;
+        }
+        return lookup(entry, loader);
+    }
+
+    /**
+     * Drop a user from this node and every other node once the current transaction commits
+     *
+     * @param id
+     * @param email
+     */
+    public void evict(Integer id, String email) {
+        invalidate(id, email);
+        invalidationChannel.publish(id, email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A reader may have loaded the old row between the first invalidation and the commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id, email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop every cached user, e.g. after missing invalidations from other nodes
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        byId.clear();
+        byEmail.clear();
+    }
+
+    /**
+     * Get a snapshot of the cache counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), remoteInvalidations.sum(),
+                lastLagMillis.get(), maxLagMillis.get(), byId.size());
+    }
+
+    private Optional<UserSnapshot> lookup(Entry entry, Supplier<Optional<UserSnapshot>> loader) {
+        long now = System.currentTimeMillis();
+        if (entry != null && now < entry.expiresAt()) {
+            hits.increment();
+            return Optional.of(entry.snapshot());
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        Optional<UserSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> put(snapshot, now, loadGeneration));
+        return loaded;
+    }
+
+    private Optional<UserSnapshot> peek(Entry entry) {
+        if (entry == null || System.currentTimeMillis() >= entry.expiresAt()) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.snapshot());
+    }
+
+    private void put(UserSnapshot snapshot, long now, long loadGeneration) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (byId.size() >= maxSize) {
+            evictEntries(now);
+        }
+        byId.put(snapshot.id(), new Entry(snapshot, now + ttlMillis));
+        byEmail.put(emailKey(snapshot.email()), snapshot.id());
+
+        // An invalidation ran while the row was being loaded, the snapshot may predate it
+        if (generation.get() != loadGeneration) {
+            byId.remove(snapshot.id());
+            byEmail.remove(emailKey(snapshot.email()), snapshot.id());
+        }
+    }
+
+    private void invalidate(Integer id, String email) {
+        readYourWritesTracker.markWrite(id, email);
+        generation.incrementAndGet();
+        invalidations.increment();
+        if (id != null) {
+            Entry removed = byId.remove(id);
+            if (removed != null) {
+                byEmail.remove(emailKey(removed.snapshot().email()), id);
+            }
+        }
+        if (email != null) {
+            byEmail.remove(emailKey(email));
+        }
+    }
+
+    private void onRemoteInvalidation(Integer id, String email, long sentAtMillis) {
+        invalidate(id, email);
+        remoteInvalidations.increment();
+
+        long lag = Math.max(0, System.currentTimeMillis() - sentAtMillis);
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    /**
+     * Emails are case-insensitive, like the lower(email) index the lookups use
+     */
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Purge expired entries, then drop arbitrary ones until the cache is back to 90% of its capacity
+     *
+     * @param now current time (epoch millis)
+     */
+    private void evictEntries(long now) {
+        byId.entrySet().removeIf(e -> now >= e.getValue().expiresAt());
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Integer> iterator = byId.keySet().iterator();
+        while (byId.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        byEmail.values().removeIf(id -> !byId.containsKey(id));
+    }
+
+    private record Entry(UserSnapshot snapshot, long expiresAt) {
+    }
+
+    public record Stats(long hits, long misses, long invalidations, long remoteInvalidations,
+                        long lastInvalidationLagMillis, long maxInvalidationLagMillis, int size) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "user.cache")
+class UserCacheProperties {
+    /**
+     * Maximum number of cached users, 0 disables the cache
+     */
+    private int maxSize = 10000;
+
+    /**
+     * Upper bound on staleness if an invalidation is lost
+     */
+    private long ttlSeconds = 300;
+}
@@ -0,0 +1,185 @@
+package com.kcdevdes.poppick.common.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Broadcasts user cache invalidations between nodes over PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Notifications are sent with pg_notify on the writer's own transaction, so PostgreSQL only delivers
+ * them once the change is committed. Each node listens on a dedicated connection opened outside the
+ * pool; whenever that connection is (re)established, subscribers are reset because anything sent while
+ * nobody was listening is lost.
+ */
+@Slf4j
+@Component
+public class UserCacheInvalidationChannel {
+
+    private static final String CHANNEL = "user_cache_invalidation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final UserCacheInvalidationProperties properties;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public UserCacheInvalidationChannel(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                        UserCacheInvalidationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        String url = dataSourceProperties.determineUrl();
+        this.enabled = properties.isEnabled() && url != null && url.startsWith("jdbc:postgresql:");
+    }
+
+    /**
+     * Register a receiver for invalidations published by other nodes
+     *
+     * @param listener
+     */
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Notify other nodes when the current transaction commits
+     *
+     * @param id
+     * @param email
+     */
+    public void publish(Integer id, String email) {
+        if (!enabled) {
+            return;
+        }
+        // The email goes last, it is the only part that may contain the separator
+        String payload = nodeId + ':' + System.currentTimeMillis() + ':'
+                + (id != null ? id : "") + ':' + (email != null ? email : "");
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "user-cache-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listeners.forEach(Listener::reset);
+                log.info("Listening for user cache invalidations");
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(properties.getPollTimeoutMs());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("User cache invalidation listener disconnected: {}", e.getMessage());
+                    sleep(properties.getReconnectDelayMs());
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(":", 4);
+        if (parts.length != 4 || parts[0].equals(nodeId)) {
+            // Our own writes were already applied locally
+            return;
+        }
+        try {
+            long sentAt = Long.parseLong(parts[1]);
+            Integer id = parts[2].isEmpty() ? null : Integer.valueOf(parts[2]);
+            String email = parts[3].isEmpty() ? null : parts[3];
+            listeners.forEach(listener -> listener.invalidated(id, email, sentAt));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user cache invalidation: {}", payload);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Another node changed a user
+         *
+         * @param id
+         * @param email
+         * @param sentAtMillis publish time on the sending node (epoch millis)
+         */
+        void invalidated(Integer id, String email, long sentAtMillis);
+
+        /**
+         * Invalidations may have been missed, drop everything
+         */
+        void reset();
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "user.cache.invalidation")
+class UserCacheInvalidationProperties {
+    /**
+     * Only takes effect on PostgreSQL
+     */
+    private boolean enabled = true;
+
+    private int pollTimeoutMs = 10000;
+    private long reconnectDelayMs = 5000;
+}
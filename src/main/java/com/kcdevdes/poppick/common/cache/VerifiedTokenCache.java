@@ -0,0 +1,185 @@
+package com.kcdevdes.poppick.common.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified access tokens.
+ * Entries are keyed by the SHA-256 digest of the token (the raw token is never stored)
+ * and expire at the token's own expiration, capped by a configurable maximum TTL.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long maxTtlMillis;
+    private final MessageDigest digestPrototype;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(VerifiedTokenCacheProperties properties) {
+        this.maxSize = properties.getMaxSize();
+        this.maxTtlMillis = properties.getMaxTtlSeconds() * 1000L;
+        try {
+            this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the cached authentication for a token
+     *
+     * @param token
+     * @return Authentication object, or null if the token is not cached or has expired
+     */
+    public Authentication get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            // Only count the removal if no other thread got there first
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.authentication();
+    }
+
+    /**
+     * Cache the authentication of a verified token
+     *
+     * @param token
+     * @param authentication
+     * @param expiresAtMillis token expiration (epoch millis)
+     */
+    public void put(String token, Authentication authentication, long expiresAtMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(expiresAtMillis, now + maxTtlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(digest(token), new Entry(authentication, expiresAt));
+    }
+
+    /**
+     * Drop every cached token
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Get a snapshot of the cache counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * Make room for a new entry.
+     * Expired entries are purged first; if the cache is still full, arbitrary entries are dropped
+     * until it is back to 90% of its capacity so that the purge is not repeated on every insert.
+     *
+     * @param now current time (epoch millis)
+     */
+    private void evict(long now) {
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().isExpired(now)) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Digest a token into a cache key.
+     * Each lookup clones the initialized prototype instead of looking the algorithm up again; a clone is a
+     * plain state copy and, unlike a thread-local instance, is also cheap on short-lived virtual threads.
+     *
+     * @param token
+     * @return Base64 encoded SHA-256 digest
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest digest = (MessageDigest) digestPrototype.clone();
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (CloneNotSupportedException e) {
+            // The JDK's SHA-256 implementations are cloneable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(Authentication authentication, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jwt.cache")
+class VerifiedTokenCacheProperties {
+    /**
+     * Maximum number of cached tokens, 0 disables the cache
+     */
+    private int maxSize = 10000;
+
+    /**
+     * Upper bound on how long a verified token is trusted without re-verification
+     */
+    private long maxTtlSeconds = 300;
+}
@@ -0,0 +1,150 @@
+package com.kcdevdes.poppick.common.config;
+
+import com.kcdevdes.poppick.common.datasource.BoundedDataSource;
+import com.kcdevdes.poppick.common.datasource.ReplicaRoutingDataSource;
+import com.kcdevdes.poppick.common.datasource.ServerTimingDataSource;
+import com.kcdevdes.poppick.common.health.ConnectionPoolMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Install the pool metrics tracker before Hikari starts, it cannot be changed afterwards;
+     * it also feeds the hikaricp_* meters that Spring Boot would otherwise have bound.
+     * Then put the connection limit and the Server-Timing wrapper in front of the pool, if enabled.
+     * Static so the post-processor does not force early initialization of this configuration.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolPostProcessor(
+            ObjectProvider<ConnectionPoolMetrics> metrics, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    if (dataSource.getMetricsTrackerFactory() == null) {
+                        dataSource.setMetricsTrackerFactory(metrics.getObject());
+                    }
+                    return decorate(dataSource, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Primary plus read replica pools; only created when a replica is configured,
+     * otherwise Spring Boot's single pool is used as before
+     */
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replicas[0].url")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties dataSourceProperties,
+            ReplicaDataSourceProperties replicaProperties,
+            ConnectionPoolMetrics metrics,
+            Environment environment) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setMetricsTrackerFactory(metrics);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+            HikariDataSource pool = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(metrics.registryOnly());
+            replicas.add(decorate(pool, environment));
+        }
+        return new ReplicaRoutingDataSource(decorate(primary, environment), replicas);
+    }
+
+    /**
+     * Defer the physical connection until the first statement, when the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "datasource.replicas[0].url")
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Wrap a pool in the optional connection limit, then in the Server-Timing database phase (server-timing.enabled)
+     *
+     * @param pool
+     * @param environment
+     * @return the pool, or the wrappers in front of it
+     */
+    private static DataSource decorate(HikariDataSource pool, Environment environment) {
+        DataSource dataSource = limit(pool, environment);
+        if (!environment.getProperty("server-timing.enabled", Boolean.class, false)) {
+            return dataSource;
+        }
+        return new ServerTimingDataSource(dataSource);
+    }
+
+    /**
+     * Bound concurrent connections to the pool size, for virtual threads (datasource.connection-limit.enabled)
+     *
+     * @param pool
+     * @param environment
+     * @return the pool, or a {@link BoundedDataSource} in front of it
+     */
+    private static DataSource limit(HikariDataSource pool, Environment environment) {
+        if (!environment.getProperty("datasource.connection-limit.enabled", Boolean.class, false)) {
+            return pool;
+        }
+        long acquireTimeoutMs = environment.getProperty(
+                "datasource.connection-limit.acquire-timeout-ms", Long.class, pool.getConnectionTimeout());
+        return new BoundedDataSource(pool, pool.getMaximumPoolSize(), acquireTimeoutMs);
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource")
+class ReplicaDataSourceProperties {
+    /**
+     * Read replicas for read-only transactions, e.g. DATASOURCE_REPLICAS_0_URL
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    static class Replica {
+        private String url;
+
+        /**
+         * Defaults to the primary's credentials
+         */
+        private String username;
+        private String password;
+    }
+}
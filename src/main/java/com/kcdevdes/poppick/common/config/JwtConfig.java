@@ -1,15 +1,108 @@
 package com.kcdevdes.poppick.common.config;
 
+import com.kcdevdes.poppick.common.security.CachedJwkSource;
+import com.kcdevdes.poppick.common.security.FileJwkSetLoader;
+import com.kcdevdes.poppick.common.security.HttpJwkSetLoader;
+import com.kcdevdes.poppick.common.security.JwkSetLoader;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Configuration
 public class JwtConfig {
 
+    /**
+     * Origin of Google's signing keys
+     */
+    @Bean
+    @ConditionalOnProperty(name = "oauth.google.jwks.loader", havingValue = "http", matchIfMissing = true)
+    public JwkSetLoader googleJwkSetLoader(GoogleJwksProperties properties) {
+        return new HttpJwkSetLoader(URI.create(properties.getLocation()), properties.getFetchTimeout());
+    }
+
+    /**
+     * Offline stand-in reading the key set from the file at oauth.google.jwks.location (local runs, tests)
+     */
+    @Bean("googleJwkSetLoader")
+    @ConditionalOnProperty(name = "oauth.google.jwks.loader", havingValue = "file")
+    public JwkSetLoader fileJwkSetLoader(GoogleJwksProperties properties) {
+        URI location = URI.create(properties.getLocation());
+        return new FileJwkSetLoader("file".equals(location.getScheme())
+                ? Path.of(location)
+                : Path.of(properties.getLocation()));
+    }
+
+    @Bean
+    public CachedJwkSource googleJwkSource(JwkSetLoader googleJwkSetLoader, GoogleJwksProperties properties) {
+        return new CachedJwkSource(
+                googleJwkSetLoader,
+                properties.getCacheFile() == null || properties.getCacheFile().isBlank()
+                        ? null
+                        : Path.of(properties.getCacheFile()),
+                properties.getCacheMaxAge(),
+                properties.getDefaultTtl(),
+                properties.getRefreshAhead(),
+                properties.getMinRefreshInterval(),
+                properties.getFetchTimeout());
+    }
+
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withJwkSetUri("https://www.googleapis.com/oauth2/v3/certs").build();
+    public JwtDecoder jwtDecoder(CachedJwkSource googleJwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, googleJwkSource));
+        // Claims are validated by Spring's OAuth2TokenValidator, same as withJwkSetUri(...)
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
     }
 }
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "oauth.google.jwks")
+class GoogleJwksProperties {
+    /**
+     * "http" (default) fetches the key set from the location URL, "file" reads it from a local file instead
+     */
+    private String loader = "http";
+
+    /**
+     * Key set URL, or a path / file: URI with the file loader
+     */
+    private String location = "https://www.googleapis.com/oauth2/v3/certs";
+
+    /**
+     * Last fetched key set, restored on startup; unset (default) disables persistence.
+     * Its directory must be owned by the service user with mode 700, e.g. under the state directory, never /tmp.
+     */
+    private String cacheFile;
+
+    /**
+     * Oldest persisted key set restored on startup, Google rotates its keys every few days
+     */
+    private Duration cacheMaxAge = Duration.ofHours(24);
+
+    /**
+     * Lifetime when the response has no Cache-Control max-age
+     */
+    private Duration defaultTtl = Duration.ofHours(1);
+
+    private Duration refreshAhead = Duration.ofMinutes(5);
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+    private Duration fetchTimeout = Duration.ofSeconds(5);
+}
@@ -1,15 +1,79 @@
 package com.kcdevdes.poppick.common.config;
 
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
 
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
 
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BCryptProperties properties) {
+        int strength = properties.isCalibrate() ? calibrateStrength(properties) : properties.getMinStrength();
+        return new BCryptPasswordEncoder(strength);
     }
-}
\ No newline at end of file
+
+    /**
+     * Pick the highest BCrypt strength whose hashing time stays within the target latency on this machine.
+     * Each strength step doubles the work, so only the minimum strength is measured.
+     *
+     * @param properties
+     * @return calibrated strength, never below the configured minimum
+     */
+    private int calibrateStrength(BCryptProperties properties) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(properties.getMinStrength());
+
+        // Warm up the JIT before measuring, the first hashes are much slower than steady state
+        for (int i = 0; i < 3; i++) {
+            probe.encode(CALIBRATION_PASSWORD);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double targetNanos = properties.getTargetLatencyMs() * 1_000_000.0;
+        int strength = properties.getMinStrength();
+        double estimate = best;
+        while (strength < properties.getMaxStrength() && estimate * 2 <= targetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+
+        log.info("BCrypt strength calibrated to {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(estimate / 1_000_000.0), properties.getTargetLatencyMs());
+        return strength;
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "password.bcrypt")
+class BCryptProperties {
+    /**
+     * Measure the hardware at startup and raise the strength up to the target latency
+     */
+    private boolean calibrate = true;
+
+    private long targetLatencyMs = 100;
+
+    /**
+     * Lower bound, also used as the fixed strength when calibration is disabled
+     */
+    private int minStrength = 10;
+
+    private int maxStrength = 14;
+}
@@ -1,10 +1,15 @@
 package com.kcdevdes.poppick.common.config;
 
+import com.kcdevdes.poppick.common.cache.VerifiedTokenCache;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
 import com.kcdevdes.poppick.common.filter.JwtAuthenticationFilter;
+import com.kcdevdes.poppick.common.handler.ErrorResponseWriter;
 import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.entity.Role;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.GrantedAuthority;
@@ -21,14 +26,21 @@ import java.util.Set;
 public class SecurityConfig {
 
     private final JwtProvider jwtProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ErrorResponseWriter errorResponseWriter;
 
-    public SecurityConfig(JwtProvider jwtProvider) {
+    public SecurityConfig(
+            JwtProvider jwtProvider,
+            VerifiedTokenCache verifiedTokenCache,
+            ErrorResponseWriter errorResponseWriter) {
         this.jwtProvider = jwtProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.errorResponseWriter = errorResponseWriter;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtProvider);
+        return new JwtAuthenticationFilter(jwtProvider, verifiedTokenCache, errorResponseWriter);
     }
 
     /**
@@ -44,11 +56,16 @@ public class SecurityConfig {
                 // Define authorization rules
                 .authorizeHttpRequests(authorize -> authorize
                         // Public endpoints
-                        .requestMatchers("/v1/auth/signup", "/v1/auth/login", "/v1/users/{id:[0-9]+}").permitAll()
+                        .requestMatchers("/v1/auth/signup", "/v1/auth/login", "/v1/users/{id:[0-9]+}", "/v1/users/batch").permitAll()
                         .requestMatchers("/v1/auth/google/login", "/v1/oauth/google/redirect", "/v1/oauth/google/failure").permitAll()
                         .requestMatchers("/v1/auth/refresh").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/", "/health/live", "/health/ready").permitAll()
+                        // Only reachable on the management port, which is not routed publicly
+                        .requestMatchers(EndpointRequest.to(PrometheusScrapeEndpoint.class)).permitAll()
                         // Protected endpoint
                         .requestMatchers("/v1/users/me").authenticated()
+                        .requestMatchers("/v1/admin/**").hasAuthority(Role.ADMIN.getKey())
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
@@ -56,14 +73,8 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint((request, response, authException) -> {
                             // 인증 실패 시 응답 작성
-                            response.setStatus(HttpStatus.UNAUTHORIZED.value());
-                            response.setContentType("application/json");
-                            response.getWriter().write(createErrorResponse(
-                                    HttpStatus.UNAUTHORIZED.value(),
-                                    "Unauthorized",
-                                    "Authentication is required to access this resource.",
-                                    request.getRequestURI()
-                            ));
+                            errorResponseWriter.write(
+                                    response, ErrorCode.AUTHENTICATION_REQUIRED, request.getRequestURI());
                         })
                 )
 
@@ -117,17 +128,4 @@ public class SecurityConfig {
         };
     }
 
-    private String createErrorResponse(int status, String error, String message, String path) {
-        String timestamp = java.time.LocalDateTime.now().toString();
-
-        return String.format(
-                "{ \"timestamp\": \"%s\", \"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"path\": \"%s\" }",
-                timestamp,
-                status,
-                error,
-                message,
-                path
-        );
-    }
-
 }
@@ -0,0 +1,32 @@
+package com.kcdevdes.poppick.common.config;
+
+import com.kcdevdes.poppick.common.security.CurrentUserArgumentResolver;
+import com.kcdevdes.poppick.common.timing.ServerTimingInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ServerTimingInterceptor> serverTimingInterceptor;
+
+    public WebConfig(ObjectProvider<ServerTimingInterceptor> serverTimingInterceptor) {
+        this.serverTimingInterceptor = serverTimingInterceptor;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Only present when server-timing.enabled, otherwise requests pass no extra interceptor
+        serverTimingInterceptor.ifAvailable(registry::addInterceptor);
+    }
+}
@@ -0,0 +1,295 @@
+package com.kcdevdes.poppick.common.crypto;
+
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import com.kcdevdes.poppick.common.timing.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, bounded executor instead of the servlet threads.
+ * When both the workers and the queue are busy, new requests are rejected immediately with 503
+ * so that a login burst cannot occupy the whole request pool. Callers also give up with 503 after the wait
+ * timeout, so a queued request never blocks longer than that.
+ * <p>
+ * Hashing time and the time spent waiting for a worker are recorded separately, so a slow login
+ * can be told apart from a saturated executor.
+ * <p>
+ * Background jobs such as the user import hash through {@link #encodeAll(List)} on the same workers, but never
+ * have more than {@code bulkThreads} hashes submitted at once. They cannot fill the queue, so they take at most
+ * that share of the workers from logins and signups, and they wait for a worker instead of failing with 503.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final long BULK_BACKOFF_MILLIS = 20;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+    private final Semaphore bulkPermits;
+    private final Timer encodeTimer;
+    private final Timer bulkEncodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueWait;
+    private final Counter rejections;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            PasswordHasherProperties properties,
+            MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.waitTimeoutMillis = properties.getWaitTimeoutMs();
+        this.bulkPermits = new Semaphore(properties.getBulkThreads() > 0
+                ? Math.min(properties.getBulkThreads(), threads)
+                : Math.max(1, threads / 2));
+
+        this.encodeTimer = timer("poppick.password.hashing", "Time to hash or check a password on a worker")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.bulkEncodeTimer = timer("poppick.password.hashing", "Time to hash or check a password on a worker")
+                .tag("operation", "bulk-encode")
+                .register(meterRegistry);
+        this.matchTimer = timer("poppick.password.hashing", "Time to hash or check a password on a worker")
+                .tag("operation", "match")
+                .register(meterRegistry);
+        this.queueWait = timer("poppick.password.queue.wait", "Time a hashing request waited for a worker")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("poppick.password.rejected")
+                .description("Hashing requests rejected or timed out because the executor was saturated")
+                .register(meterRegistry);
+        Gauge.builder("poppick.password.queue.size", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash a raw password
+     *
+     * @param rawPassword
+     * @return encoded password
+     * @throws DomainException 503 if the hashing executor is saturated
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    /**
+     * Hash many raw passwords for a background job, at most {@code bulkThreads} at a time.
+     * Waits while the executor is saturated by interactive requests instead of failing.
+     *
+     * @param rawPasswords passwords, null entries are skipped
+     * @return encoded passwords in the same order, null where the input is null
+     */
+    public String[] encodeAll(List<? extends CharSequence> rawPasswords) {
+        String[] encoded = new String[rawPasswords.size()];
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                futures.add(rawPassword == null ? null : submitBulk(() -> passwordEncoder.encode(rawPassword)));
+            }
+            for (int i = 0; i < encoded.length; i++) {
+                if (futures.get(i) != null) {
+                    encoded[i] = futures.get(i).get();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Hashes already submitted run to completion, they give their permits back when done
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return encoded;
+    }
+
+    /**
+     * Check a raw password against its encoded form
+     *
+     * @param rawPassword
+     * @param encodedPassword
+     * @return true if the password matches
+     * @throws DomainException 503 if the hashing executor is saturated
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchTimer);
+    }
+
+    /**
+     * Check whether an encoded password was produced with weaker settings than the current ones
+     *
+     * @param encodedPassword
+     * @return true if the password should be hashed again
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task, Timer timer) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return submit(task, timer);
+        }
+        // The hashing runs on a worker, the request sees the queue wait plus the hash
+        long start = System.nanoTime();
+        try {
+            return submit(task, timer);
+        } finally {
+            timing.add(ServerTiming.Phase.HASH, System.nanoTime() - start);
+        }
+    }
+
+    private <T> T submit(Callable<T> task, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(timed(task, timer));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new DomainException(ErrorCode.SERVER_BUSY);
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new DomainException(ErrorCode.SERVER_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DomainException(ErrorCode.SERVER_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Submit a bulk hash once a bulk permit is free, backing off while interactive requests fill the queue
+     */
+    private <T> Future<T> submitBulk(Callable<T> task) throws InterruptedException {
+        bulkPermits.acquire();
+        Callable<T> timed = timed(task, bulkEncodeTimer);
+        Callable<T> releasing = () -> {
+            try {
+                return timed.call();
+            } finally {
+                bulkPermits.release();
+            }
+        };
+
+        try {
+            while (true) {
+                try {
+                    return executor.submit(releasing);
+                } catch (RejectedExecutionException e) {
+                    if (executor.isShutdown()) {
+                        throw new IllegalStateException("Password hasher is shut down", e);
+                    }
+                    Thread.sleep(BULK_BACKOFF_MILLIS);
+                }
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            bulkPermits.release();
+            throw e;
+        }
+    }
+
+    private <T> Callable<T> timed(Callable<T> task, Timer timer) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        // BCrypt takes tens to hundreds of milliseconds, queueing under a burst can take seconds
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "password.hashing")
+class PasswordHasherProperties {
+    /**
+     * Number of hashing threads, 0 uses one per available processor
+     */
+    private int threads = 0;
+
+    /**
+     * Maximum number of hashing requests waiting for a thread before new ones are rejected
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Maximum time a caller waits for its hash, queueing included, before giving up with 503
+     */
+    private long waitTimeoutMs = 5000;
+
+    /**
+     * Hashing threads a background job such as the user import may occupy at once, 0 uses half of the
+     * threads (at least one). At most that many bulk hashes are queued or running, so logins and signups
+     * keep the other workers and the rest of the queue.
+     */
+    private int bulkThreads = 0;
+}
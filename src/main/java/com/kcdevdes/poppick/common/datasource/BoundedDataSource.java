@@ -0,0 +1,133 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the connections handed out by a pool with a fair semaphore.
+ * <p>
+ * With a platform thread pool the request threads bounded database concurrency implicitly; with virtual
+ * threads every request can reach the pool at once. Callers beyond the cap queue here in FIFO order and
+ * give up after the acquire timeout, instead of piling up inside the pool.
+ * A permit is held from {@link #getConnection()} until the connection is closed.
+ */
+public class BoundedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedDataSource(DataSource target, int maxConnections, long acquireTimeoutMillis) {
+        super(target);
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return bound(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return bound(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Get a snapshot of the limiter counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        return new Stats(maxConnections, maxConnections - permits.availablePermits(), permits.getQueueLength(),
+                rejected.sum());
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException("Connection limit of " + maxConnections
+                        + " reached, not available after " + acquireTimeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * Release the permit on the first close() of the connection
+     */
+    private Connection bound(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTargetConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * @param maxConnections connections allowed at once
+     * @param inUse          connections currently handed out
+     * @param waiting        callers queued for a permit
+     * @param rejected       callers that gave up after the acquire timeout
+     */
+    public record Stats(int maxConnections, int inUse, int waiting, long rejected) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers recently written users so their reads stay on the primary until the replicas have caught up
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(ReadYourWritesProperties properties) {
+        this.windowMillis = properties.getWindowMs();
+    }
+
+    /**
+     * Record a write to a user, on this node or announced by another one
+     *
+     * @param id
+     * @param email
+     */
+    public void markWrite(Integer id, String email) {
+        long until = System.currentTimeMillis() + windowMillis;
+        if (id != null) {
+            recentWrites.put(idKey(id), until);
+        }
+        if (email != null) {
+            recentWrites.put(emailKey(email), until);
+        }
+    }
+
+    /**
+     * Check if reads of a user must go to the primary
+     *
+     * @param id    may be null
+     * @param email may be null
+     * @return true if the user was written within the window
+     */
+    public boolean isRecentlyWritten(Integer id, String email) {
+        long now = System.currentTimeMillis();
+        return (id != null && isRecent(idKey(id), now)) || (email != null && isRecent(emailKey(email), now));
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.read-your-writes.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        recentWrites.values().removeIf(until -> until <= now);
+    }
+
+    private boolean isRecent(String key, long now) {
+        Long until = recentWrites.get(key);
+        return until != null && until > now;
+    }
+
+    private static String idKey(Integer id) {
+        return "i:" + id;
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.toLowerCase(Locale.ROOT);
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource.read-your-writes")
+class ReadYourWritesProperties {
+    /**
+     * How long reads of a written user stay on the primary, should exceed the usual replica lag
+     */
+    private long windowMs = 5000;
+}
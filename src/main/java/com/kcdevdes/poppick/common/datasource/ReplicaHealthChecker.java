@@ -0,0 +1,23 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejects and restores read replicas in the background; no-op without replicas
+ */
+@Component
+public class ReplicaHealthChecker {
+
+    private final ObjectProvider<ReplicaRoutingDataSource> routingDataSource;
+
+    public ReplicaHealthChecker(ObjectProvider<ReplicaRoutingDataSource> routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica-check-interval-ms:5000}")
+    public void check() {
+        routingDataSource.ifAvailable(dataSource -> dataSource.checkReplicas(1));
+    }
+}
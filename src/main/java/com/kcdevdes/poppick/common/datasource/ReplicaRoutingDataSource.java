@@ -0,0 +1,124 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sends read-only transactions to the replicas round-robin, everything else to the primary.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction's read-only flag is only known once it has begun, so the physical connection has to be
+ * fetched lazily. Replicas failing their health check, or failing to hand out a connection, are ejected
+ * until a later check succeeds. With no healthy replica, reads go to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            healthy.set(i, 1);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (healthy.get(candidate) == 1) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (key instanceof Integer replica) {
+            try {
+                return replicas.get(replica).getConnection();
+            } catch (SQLException e) {
+                markHealthy(replica, false, e.getMessage());
+            }
+        }
+        return getResolvedDefaultDataSource().getConnection();
+    }
+
+    /**
+     * Validate every replica, putting ejected ones back once they answer again
+     *
+     * @param timeoutSeconds validation timeout per replica
+     */
+    public void checkReplicas(int timeoutSeconds) {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                markHealthy(i, connection.isValid(timeoutSeconds), "Validation failed");
+            } catch (SQLException e) {
+                markHealthy(i, false, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return number of replicas currently receiving reads
+     */
+    public int getHealthyReplicas() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Close the primary and replica pools on shutdown
+     */
+    public void close() {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close data source: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markHealthy(int replica, boolean up, String reason) {
+        int previous = healthy.getAndSet(replica, up ? 1 : 0);
+        if (previous == 1 && !up) {
+            log.warn("Ejected read replica {}: {}", replica, reason);
+        } else if (previous == 0 && up) {
+            log.info("Read replica {} is back", replica);
+        }
+    }
+}
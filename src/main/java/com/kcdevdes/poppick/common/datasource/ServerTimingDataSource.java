@@ -0,0 +1,117 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import com.kcdevdes.poppick.common.timing.ServerTiming;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds connection acquisition and statement execution time to the {@link ServerTiming} of the current request.
+ * <p>
+ * Connections are only proxied when they are obtained by a timed request, so every other request pays a single
+ * thread-local read per connection and nothing per statement.
+ */
+public class ServerTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public ServerTimingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return obtainTargetDataSource().getConnection();
+        }
+        long start = System.nanoTime();
+        try {
+            return timed(obtainTargetDataSource().getConnection(), timing);
+        } finally {
+            timing.add(ServerTiming.Phase.DB, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        try {
+            return timed(obtainTargetDataSource().getConnection(username, password), timing);
+        } finally {
+            timing.add(ServerTiming.Phase.DB, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Time the statements created by the connection
+     */
+    private static Connection timed(Connection connection, ServerTiming timing) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTargetConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            Object result = invoke(connection, method, args);
+                            return result instanceof Statement statement
+                                    ? timed(statement, method.getReturnType(), timing)
+                                    : result;
+                    }
+                });
+    }
+
+    /**
+     * Count every execute* call as one query
+     */
+    private static Object timed(Statement statement, Class<?> type, ServerTiming timing) {
+        return Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            if (!method.getName().startsWith("execute")) {
+                                return invoke(statement, method, args);
+                            }
+                            long start = System.nanoTime();
+                            try {
+                                return invoke(statement, method, args);
+                            } finally {
+                                timing.addQuery(System.nanoTime() - start);
+                            }
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.kcdevdes.poppick.common.exception;
+
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Expected failure of a request, e.g. wrong credentials or a missing user.
+ * <p>
+ * Carries no stack trace: these are outcomes, not bugs, and during credential-stuffing waves they are thrown
+ * more often than anything else, so capturing the stack would dominate the cost of a rejected request.
+ * Still a {@link ResponseStatusException}, so existing handlers keep working.
+ */
+public class DomainException extends ResponseStatusException {
+
+    private final ErrorCode errorCode;
+
+    public DomainException(ErrorCode errorCode) {
+        super(errorCode.getStatus(), errorCode.getMessage());
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
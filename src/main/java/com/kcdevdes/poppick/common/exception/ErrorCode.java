@@ -0,0 +1,47 @@
+package com.kcdevdes.poppick.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Fixed error responses of the API. Their JSON bodies are pre-serialized once by
+ * {@link com.kcdevdes.poppick.common.handler.ErrorResponseWriter}.
+ */
+@Getter
+public enum ErrorCode {
+    // Authentication
+    AUTHENTICATION_REQUIRED(HttpStatus.UNAUTHORIZED, "Authentication is required to access this resource."),
+    AUTHORIZATION_REQUIRED(HttpStatus.UNAUTHORIZED, "Authorization Required"),
+    WRONG_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Wrong Credentials"),
+    WRONG_OAUTH_CREDENTIALS(HttpStatus.UNAUTHORIZED, "Wrong OAuth credentials"),
+    OAUTH_LOGIN_REQUIRED(HttpStatus.UNAUTHORIZED, "OAuth Login Required"),
+    STANDARD_AUTH_REQUIRED(HttpStatus.UNAUTHORIZED, "Standard Auth Required"),
+    UNKNOWN_USER(HttpStatus.UNAUTHORIZED, "User Not Found"),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Parse Error"),
+    INVALID_REFRESH_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid Refresh Token"),
+    TOO_MANY_LOGIN_ATTEMPTS(HttpStatus.TOO_MANY_REQUESTS, "Too Many Login Attempts"),
+
+    // Users
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND, "User Not Found"),
+    USER_MODIFIED(HttpStatus.PRECONDITION_FAILED, "User Modified"),
+    EMAIL_ALREADY_EXISTS(HttpStatus.BAD_REQUEST, "Email Already Exists"),
+    INVALID_SEARCH_TERM(HttpStatus.BAD_REQUEST, "Invalid Search Term"),
+    SEARCH_TERM_TOO_SHORT(HttpStatus.BAD_REQUEST, "Search Term Too Short"),
+    INVALID_MATCH_MODE(HttpStatus.BAD_REQUEST, "Invalid Match Mode"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Invalid Cursor"),
+    INVALID_BATCH_SIZE(HttpStatus.BAD_REQUEST, "Invalid Batch Size"),
+
+    // General
+    NOT_FOUND(HttpStatus.NOT_FOUND, "Not Found"),
+    SERVER_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "Server Busy"),
+    USER_LOOKUP_FAILED(HttpStatus.SERVICE_UNAVAILABLE, "User Lookup Failed"),
+    USER_LOOKUP_INTERRUPTED(HttpStatus.SERVICE_UNAVAILABLE, "User Lookup Interrupted");
+
+    private final HttpStatus status;
+    private final String message;
+
+    ErrorCode(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+}
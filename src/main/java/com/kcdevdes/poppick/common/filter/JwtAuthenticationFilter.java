@@ -1,7 +1,11 @@
 package com.kcdevdes.poppick.common.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcdevdes.poppick.common.cache.VerifiedTokenCache;
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.handler.ErrorResponseWriter;
 import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.security.AuthenticatedUser;
+import com.kcdevdes.poppick.common.timing.ServerTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,17 +18,21 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtProvider jwtProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ErrorResponseWriter errorResponseWriter;
 
-    public JwtAuthenticationFilter(JwtProvider jwtProvider) {
+    public JwtAuthenticationFilter(
+            JwtProvider jwtProvider,
+            VerifiedTokenCache verifiedTokenCache,
+            ErrorResponseWriter errorResponseWriter) {
         this.jwtProvider = jwtProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.errorResponseWriter = errorResponseWriter;
     }
 
     @Override
@@ -34,9 +42,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract token from request
             String token = resolveToken(request);
 
-            if (token != null && jwtProvider.validateToken(token)) {
-                Authentication authentication = jwtProvider.getAuthentication(token);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (token != null) {
+                ServerTiming timing = ServerTiming.current();
+                long start = timing != null ? System.nanoTime() : 0L;
+                Authentication authentication = authenticate(token);
+                if (timing != null) {
+                    timing.add(ServerTiming.Phase.JWT, System.nanoTime() - start);
+                }
+                if (authentication != null) {
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
 
             // Continue filter chain
@@ -46,24 +61,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Resolve the authentication of a token, verifying it only when it is not already cached
+     *
+     * @param token
+     * @return Authentication object, or null if the token is invalid
+     */
+    private Authentication authenticate(String token) {
+        Authentication authentication = verifiedTokenCache.get(token);
+        if (authentication != null) {
+            return authentication;
+        }
+
+        // Verify and parse the claims once, the principal carries everything downstream needs
+        authentication = jwtProvider.authenticate(token);
+        if (authentication != null) {
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            verifiedTokenCache.put(token, authentication, user.expiresAt());
+        }
+        return authentication;
+    }
+
     private void handleException(HttpServletResponse response, Exception exception, String path) throws IOException {
+        if (exception instanceof DomainException domainException) {
+            errorResponseWriter.write(response, domainException.getErrorCode(), path);
+            return;
+        }
+
         HttpStatus status = exception instanceof ResponseStatusException
                 ? HttpStatus.valueOf(((ResponseStatusException) exception).getStatusCode().value())
                 : HttpStatus.UNAUTHORIZED;
-
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now().toString());
-        errorResponse.put("status", status.value());
-        errorResponse.put("error", status.getReasonPhrase());
-        errorResponse.put("message", exception.getMessage() != null ? exception.getMessage() : "Unauthorized");
-        errorResponse.put("path", path);
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        String jsonResponse = objectMapper.writeValueAsString(errorResponse);
-
-        response.setStatus(status.value());
-        response.setContentType("application/json");
-        response.getWriter().write(jsonResponse);
+        errorResponseWriter.write(response, status,
+                exception.getMessage() != null ? exception.getMessage() : "Unauthorized", path);
     }
 
     private String resolveToken(HttpServletRequest request) {
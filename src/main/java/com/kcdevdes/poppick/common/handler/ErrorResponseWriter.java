@@ -0,0 +1,129 @@
+package com.kcdevdes.poppick.common.handler;
+
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes error bodies ({"timestamp","status","error","message","path"}) without Jackson.
+ * The constant part of every {@link ErrorCode} body is serialized once at startup; per request only the
+ * timestamp and the escaped path are encoded, and the body goes out in a few raw writes.
+ */
+@Component
+public class ErrorResponseWriter {
+
+    private static final byte[] TIMESTAMP_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<ErrorCode, byte[]> templates = new EnumMap<>(ErrorCode.class);
+
+    public ErrorResponseWriter() {
+        for (ErrorCode code : ErrorCode.values()) {
+            templates.put(code, middle(code.getStatus(), code.getMessage()));
+        }
+    }
+
+    /**
+     * Write the pre-serialized body of an error code
+     *
+     * @param response
+     * @param code
+     * @param path request URI
+     * @throws IOException
+     */
+    public void write(HttpServletResponse response, ErrorCode code, String path) throws IOException {
+        write(response, code.getStatus(), templates.get(code), path);
+    }
+
+    /**
+     * Write an error body for a status and message that are not an {@link ErrorCode}
+     *
+     * @param response
+     * @param status
+     * @param message
+     * @param path    request URI
+     * @throws IOException
+     */
+    public void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        write(response, status, middle(status, message), path);
+    }
+
+    private void write(HttpServletResponse response, HttpStatus status, byte[] middle, String path) throws IOException {
+        byte[] timestamp = LocalDateTime.now().toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] escapedPath = escape(path).getBytes(StandardCharsets.UTF_8);
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TIMESTAMP_PREFIX.length + timestamp.length + middle.length
+                + escapedPath.length + SUFFIX.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(TIMESTAMP_PREFIX);
+        out.write(timestamp);
+        out.write(middle);
+        out.write(escapedPath);
+        out.write(SUFFIX);
+    }
+
+    /**
+     * Everything between the timestamp and the path value
+     */
+    private static byte[] middle(HttpStatus status, String message) {
+        return ("\",\"status\":" + status.value()
+                + ",\"error\":\"" + escape(status.getReasonPhrase())
+                + "\",\"message\":\"" + escape(message)
+                + "\",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escape a JSON string value; returns the input itself when nothing needs escaping, the usual case
+     *
+     * @param value may be null
+     * @return escaped value without quotes
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        int i = 0;
+        while (i < value.length() && !needsEscape(value.charAt(i))) {
+            i++;
+        }
+        if (i == value.length()) {
+            return value;
+        }
+
+        StringBuilder escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029';
+    }
+}
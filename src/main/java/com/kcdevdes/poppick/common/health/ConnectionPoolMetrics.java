@@ -0,0 +1,108 @@
+package com.kcdevdes.poppick.common.health;
+
+import com.kcdevdes.poppick.common.util.LatencyHistogram;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics tracker, installed on the pool by {@link com.kcdevdes.poppick.common.config.DataSourceConfig}.
+ * Gauges are read from Hikari's own pool statistics; acquisition and usage times are kept as histograms.
+ * <p>
+ * A pool takes a single tracker factory, and Spring Boot does not bind its hikaricp_* meters to a pool that
+ * already has one, so every event is also passed on to Hikari's Micrometer tracker.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LatencyHistogram acquisitionTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final MetricsTrackerFactory registryMetrics;
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    public ConnectionPoolMetrics(MeterRegistry meterRegistry) {
+        this.registryMetrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        IMetricsTracker registryTracker = registryMetrics.create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.record(connectionCreatedMillis, TimeUnit.MILLISECONDS);
+                registryTracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitionTime.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+                registryTracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+                registryTracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+                registryTracker.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                registryTracker.close();
+            }
+        };
+    }
+
+    /**
+     * Tracker factory for secondary pools such as read replicas: hikaricp_* meters only, no admin view
+     *
+     * @return factory registering the pool with the meter registry
+     */
+    public MetricsTrackerFactory registryOnly() {
+        return registryMetrics;
+    }
+
+    /**
+     * Get a snapshot of the pool state and timings
+     *
+     * @return Stats object, with zero gauges until the pool has started
+     */
+    public Stats getStats() {
+        PoolStats stats = poolStats;
+        return new Stats(
+                poolName,
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                stats == null ? 0 : stats.getMaxConnections(),
+                timeouts.sum(),
+                acquisitionTime.snapshot(),
+                usageTime.snapshot(),
+                creationTime.snapshot());
+    }
+
+    public record Stats(String poolName, int active, int idle, int pending, int total, int max, long timeouts,
+                        LatencyHistogram.Snapshot acquisitionTime,
+                        LatencyHistogram.Snapshot usageTime,
+                        LatencyHistogram.Snapshot creationTime) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.kcdevdes.poppick.common.health;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the database in the background and caches the result for the probes.
+ * However often the load balancer probes, each node borrows at most one connection per interval.
+ * <p>
+ * The check runs on its own thread rather than on the shared {@code @Scheduled} pool. A long job there,
+ * such as the nightly revocation purge, would otherwise delay the check past the allowed staleness and
+ * take the node out of rotation while the database is fine.
+ */
+@Slf4j
+@Component
+public class DatabaseHealthChecker {
+
+    private final DataSource dataSource;
+    private final DatabaseHealthProperties properties;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Status status = new Status(false, 0L, 0L, "Not checked yet");
+
+    public DatabaseHealthChecker(DataSource dataSource, DatabaseHealthProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, 0, properties.getIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Borrow and validate a connection, then publish the result
+     */
+    public void check() {
+        long started = System.nanoTime();
+        Status checked;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(properties.getValidationTimeoutSeconds());
+            checked = new Status(valid, System.currentTimeMillis(), (System.nanoTime() - started) / 1_000_000,
+                    valid ? null : "Validation failed");
+        } catch (SQLException | RuntimeException e) {
+            // Catching runtime failures too keeps the schedule alive, an escaping exception would cancel it
+            checked = new Status(false, System.currentTimeMillis(), (System.nanoTime() - started) / 1_000_000,
+                    e.getMessage());
+        }
+
+        if (checked.up() != status.up()) {
+            log.info("Database is {}{}", checked.up() ? "UP" : "DOWN",
+                    checked.error() == null ? "" : ": " + checked.error());
+        }
+        status = checked;
+    }
+
+    /**
+     * Get the last check result; it counts as down once it is older than the allowed staleness,
+     * e.g. when the checker itself is stuck
+     *
+     * @return Status object
+     */
+    public Status getStatus() {
+        Status current = status;
+        if (current.up() && System.currentTimeMillis() - current.checkedAt() > properties.getMaxStalenessMs()) {
+            return new Status(false, current.checkedAt(), current.latencyMillis(), "Health check is stale");
+        }
+        return current;
+    }
+
+    /**
+     * @param up            database reachable and connection valid
+     * @param checkedAt     time of the check (epoch millis)
+     * @param latencyMillis time to borrow and validate a connection
+     * @param error         failure reason, null when up
+     */
+    public record Status(boolean up, long checkedAt, long latencyMillis, String error) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "health.database")
+class DatabaseHealthProperties {
+    private long intervalMs = 2000;
+
+    private int validationTimeoutSeconds = 1;
+
+    /**
+     * Results older than this are reported as down
+     */
+    private long maxStalenessMs = 10000;
+}
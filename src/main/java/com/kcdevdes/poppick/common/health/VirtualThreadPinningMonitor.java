@@ -0,0 +1,135 @@
+package com.kcdevdes.poppick.common.health;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinning their carrier thread, e.g. blocking inside a synchronized block of a
+ * driver or filter, from the JDK's jdk.VirtualThreadPinned JFR event.
+ * <p>
+ * Starts before the rest of the context so pinning during startup is included in the summary logged once the
+ * application is ready. Each pinning site is logged with its stack the first time it is seen.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final VirtualThreadPinningProperties properties;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final AtomicLong maxPinnedMillis = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadPinningProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(properties.getThresholdMs())).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR may be unavailable in a trimmed runtime, the application runs fine without the report
+            log.warn("Virtual thread pinning diagnostics unavailable: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportStartup() {
+        if (stream == null) {
+            return;
+        }
+        if (sites.isEmpty()) {
+            log.info("Virtual threads: no carrier pinning over {} ms during startup", properties.getThresholdMs());
+        } else {
+            log.warn("Virtual threads: {} pinning event(s) at {} site(s) during startup, longest {} ms",
+                    pinnedEvents.sum(), sites.size(), maxPinnedMillis.get());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Get a snapshot of the pinning counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        return new Stats(stream != null, pinnedEvents.sum(), maxPinnedMillis.get(), sites.size());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long millis = event.getDuration().toMillis();
+        pinnedEvents.increment();
+        maxPinnedMillis.accumulateAndGet(millis, Math::max);
+
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        if (sites.add(stack)) {
+            log.warn("Virtual thread pinned its carrier for {} ms{}", millis, stack);
+        }
+    }
+
+    /**
+     * @param enabled         diagnostics running
+     * @param pinnedEvents    pinning events over the threshold
+     * @param maxPinnedMillis longest pinning seen
+     * @param sites           distinct pinning stacks
+     */
+    public record Stats(boolean enabled, long pinnedEvents, long maxPinnedMillis, int sites) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "virtual-threads.pinning")
+class VirtualThreadPinningProperties {
+    /**
+     * Defaults to spring.threads.virtual.enabled in application.properties
+     */
+    private boolean enabled = false;
+
+    /**
+     * Only pinning longer than this is reported
+     */
+    private long thresholdMs = 20;
+}
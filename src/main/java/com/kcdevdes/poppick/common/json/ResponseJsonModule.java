@@ -0,0 +1,155 @@
+package com.kcdevdes.poppick.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.kcdevdes.poppick.dto.response.ApiErrorResponseDto;
+import com.kcdevdes.poppick.dto.response.JwtResponseDto;
+import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.dto.response.UserResponseDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializers for the most frequent responses, registered by Spring Boot as a Jackson module.
+ * <p>
+ * They write each field straight to the generator with pre-encoded names, instead of going through the
+ * reflective bean serializer. The output is the same as before: declaration order, nulls included and
+ * ISO-8601 date-times.
+ */
+@Component
+public class ResponseJsonModule extends SimpleModule {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString PROFILE_IMAGE = new SerializedString("profileImage");
+    private static final SerializableString OAUTH_PROVIDER = new SerializedString("oauthProvider");
+    private static final SerializableString OAUTH_ID = new SerializedString("oauthId");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString GRANT_TYPE = new SerializedString("grantType");
+    private static final SerializableString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializableString REFRESH_TOKEN = new SerializedString("refreshToken");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString ERROR = new SerializedString("error");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString PATH = new SerializedString("path");
+
+    public ResponseJsonModule() {
+        super("poppick-responses");
+        addSerializer(UserResponseDto.class, new UserResponseSerializer());
+        addSerializer(LimitedUserResponseDto.class, new LimitedUserResponseSerializer());
+        addSerializer(JwtResponseDto.class, new JwtResponseSerializer());
+        addSerializer(ApiErrorResponseDto.class, new ApiErrorResponseSerializer());
+    }
+
+    static class UserResponseSerializer extends StdSerializer<UserResponseDto> {
+        UserResponseSerializer() {
+            super(UserResponseDto.class);
+        }
+
+        @Override
+        public void serialize(UserResponseDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            writeNumber(gen, ID, value.getId());
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, USERNAME, value.getUsername());
+            writeString(gen, PROFILE_IMAGE, value.getProfileImage());
+            writeString(gen, OAUTH_PROVIDER, value.getOauthProvider());
+            writeString(gen, OAUTH_ID, value.getOauthId());
+            writeDateTime(gen, CREATED_AT, value.getCreatedAt());
+            writeDateTime(gen, UPDATED_AT, value.getUpdatedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    static class LimitedUserResponseSerializer extends StdSerializer<LimitedUserResponseDto> {
+        LimitedUserResponseSerializer() {
+            super(LimitedUserResponseDto.class);
+        }
+
+        @Override
+        public void serialize(LimitedUserResponseDto value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            writeNumber(gen, ID, value.getId());
+            writeString(gen, EMAIL, value.getEmail());
+            writeString(gen, USERNAME, value.getUsername());
+            writeString(gen, PROFILE_IMAGE, value.getProfileImage());
+            gen.writeEndObject();
+        }
+    }
+
+    static class JwtResponseSerializer extends StdSerializer<JwtResponseDto> {
+        JwtResponseSerializer() {
+            super(JwtResponseDto.class);
+        }
+
+        @Override
+        public void serialize(JwtResponseDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            writeString(gen, GRANT_TYPE, value.getGrantType());
+            writeString(gen, ACCESS_TOKEN, value.getAccessToken());
+            writeString(gen, REFRESH_TOKEN, value.getRefreshToken());
+            gen.writeEndObject();
+        }
+    }
+
+    static class ApiErrorResponseSerializer extends StdSerializer<ApiErrorResponseDto> {
+        ApiErrorResponseSerializer() {
+            super(ApiErrorResponseDto.class);
+        }
+
+        @Override
+        public void serialize(ApiErrorResponseDto value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(value);
+            writeDateTime(gen, TIMESTAMP, value.getTimestamp());
+            gen.writeFieldName(STATUS);
+            gen.writeNumber(value.getStatus());
+            writeString(gen, ERROR, value.getError());
+            writeString(gen, MESSAGE, value.getMessage());
+            writeString(gen, PATH, value.getPath());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializableString name, Integer value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    /**
+     * Same format as jackson-datatype-jsr310 with WRITE_DATES_AS_TIMESTAMPS disabled, Spring Boot's default
+     */
+    private static void writeDateTime(JsonGenerator gen, SerializableString name, LocalDateTime value)
+            throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
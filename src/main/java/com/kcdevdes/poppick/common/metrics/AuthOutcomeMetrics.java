@@ -0,0 +1,89 @@
+package com.kcdevdes.poppick.common.metrics;
+
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Counts the outcome of every login, refresh and OAuth login, tagged with the error code of rejected attempts.
+ * The outcomes alerting relies on are registered up front so they are scraped as 0 before the first occurrence.
+ */
+@Component
+public class AuthOutcomeMetrics {
+
+    private static final String NAME = "poppick.auth.attempts";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Operation, Counter> successes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<ErrorCode, Counter>> failures = new EnumMap<>(Operation.class);
+
+    public AuthOutcomeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Operation operation : Operation.values()) {
+            successes.put(operation, counter(operation, "success"));
+            errors.put(operation, counter(operation, "error"));
+
+            Map<ErrorCode, Counter> counters = new ConcurrentHashMap<>();
+            operation.expectedFailures.forEach(code -> counters.put(code, counter(operation, outcome(code))));
+            failures.put(operation, counters);
+        }
+    }
+
+    /**
+     * Run an authentication step and count its outcome
+     *
+     * @param operation
+     * @param action
+     * @return the action's result
+     */
+    public <T> T record(Operation operation, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (DomainException e) {
+            failures.get(operation)
+                    .computeIfAbsent(e.getErrorCode(), code -> counter(operation, outcome(code)))
+                    .increment();
+            throw e;
+        } catch (RuntimeException e) {
+            errors.get(operation).increment();
+            throw e;
+        }
+        successes.get(operation).increment();
+        return result;
+    }
+
+    private Counter counter(Operation operation, String outcome) {
+        return Counter.builder(NAME)
+                .description("Authentication attempts by operation and outcome")
+                .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(ErrorCode code) {
+        return code.name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Operation {
+        LOGIN(List.of(ErrorCode.WRONG_CREDENTIALS, ErrorCode.OAUTH_LOGIN_REQUIRED, ErrorCode.TOO_MANY_LOGIN_ATTEMPTS)),
+        REFRESH(List.of(ErrorCode.INVALID_REFRESH_TOKEN)),
+        OAUTH_LOGIN(List.of(ErrorCode.WRONG_OAUTH_CREDENTIALS, ErrorCode.STANDARD_AUTH_REQUIRED));
+
+        private final List<ErrorCode> expectedFailures;
+
+        Operation(List<ErrorCode> expectedFailures) {
+            this.expectedFailures = expectedFailures;
+        }
+    }
+}
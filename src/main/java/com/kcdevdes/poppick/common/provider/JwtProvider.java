@@ -1,64 +1,88 @@
 package com.kcdevdes.poppick.common.provider;
 
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
 import com.kcdevdes.poppick.dto.response.JwtResponseDto;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import com.kcdevdes.poppick.common.provider.token.AsymmetricTokenCodec;
+import com.kcdevdes.poppick.common.provider.token.CompactHs256TokenCodec;
+import com.kcdevdes.poppick.common.provider.token.JjwtTokenCodec;
+import com.kcdevdes.poppick.common.provider.token.TimedTokenCodec;
+import com.kcdevdes.poppick.common.provider.token.TokenClaims;
+import com.kcdevdes.poppick.common.provider.token.TokenCodec;
+import com.kcdevdes.poppick.common.provider.token.TokenVerification;
+import com.kcdevdes.poppick.common.security.AuthenticatedUser;
 import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.web.server.ResponseStatusException;
 
-
-import java.security.Key;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtProvider {
 
-    private final Key key;
+    private final TokenCodec tokenCodec;
     private static final long ACCESS_TOKEN_EXPIRATION = 3600000L; // 1 hour
-    private static final long REFRESH_TOKEN_EXPIRATION = 30L * 24 * 60 * 60 * 1000; // 30 days
+    static final long REFRESH_TOKEN_EXPIRATION = 30L * 24 * 60 * 60 * 1000; // 30 days
 
-    public JwtProvider(JwtProperties jwtProperties, PasswordEncoder passwordEncoder) {
+    public JwtProvider(
+            JwtProperties jwtProperties,
+            PasswordEncoder passwordEncoder,
+            SigningKeyRing signingKeyRing,
+            MeterRegistry meterRegistry) {
         byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-        this.key = Keys.hmacShaKeyFor(keyBytes);
+        TokenCodec hmacCodec = "jjwt".equalsIgnoreCase(jwtProperties.getCodec())
+                ? new JjwtTokenCodec(keyBytes)
+                : new CompactHs256TokenCodec(keyBytes);
+
+        TokenCodec codec;
+        if (signingKeyRing != null && signingKeyRing.isEnabled()) {
+            // HS256 tokens issued before the switch stay valid until they expire, unless disabled
+            codec = new AsymmetricTokenCodec(signingKeyRing,
+                    signingKeyRing.acceptsHmac() ? hmacCodec : null);
+        } else {
+            codec = hmacCodec;
+        }
+        // Benchmarks build the provider without a registry and measure the bare codec
+        this.tokenCodec = meterRegistry != null ? new TimedTokenCodec(codec, meterRegistry) : codec;
+    }
+
+    /**
+     * Generate a new access token and a refresh token starting a new rotation family
+     *
+     * @param authentication
+     * @return JwtResponseDto object
+     */
+    public JwtResponseDto generateToken(Authentication authentication) {
+        return generateToken(authentication, UUID.randomUUID().toString());
     }
 
     /**
-     * Generate a new access token and refresh token
+     * Generate a new access token and the next refresh token of a rotation family
      *
      * @param authentication
-     * @param isRefresh
+     * @param familyId rotation family the refresh token belongs to
      * @return JwtResponseDto object
      */
-    public JwtResponseDto generateToken(Authentication authentication, boolean isRefresh) {
+    public JwtResponseDto generateToken(Authentication authentication, String familyId) {
         String authorities = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        String accessToken = createToken(authentication.getName(), authorities, ACCESS_TOKEN_EXPIRATION);
-        String refreshToken = createToken(authentication.getName(), authorities, REFRESH_TOKEN_EXPIRATION);
-
-        if (isRefresh) {
-            return JwtResponseDto.builder()
-                    .grantType("Bearer")
-                    .accessToken(accessToken)
-                    .build();
-        }
+        String accessToken = createToken(authentication.getName(), authorities, ACCESS_TOKEN_EXPIRATION, null, null);
+        String refreshToken = createToken(authentication.getName(), authorities, REFRESH_TOKEN_EXPIRATION,
+                UUID.randomUUID().toString(), familyId);
 
         return JwtResponseDto.builder()
                 .grantType("Bearer")
@@ -67,6 +91,15 @@ public class JwtProvider {
                 .build();
     }
 
+    /**
+     * Get the lifetime of a refresh token
+     *
+     * @return refresh token lifetime
+     */
+    public Duration getRefreshTokenExpiration() {
+        return Duration.ofMillis(REFRESH_TOKEN_EXPIRATION);
+    }
+
     /**
      * Validate the token
      *
@@ -74,15 +107,7 @@ public class JwtProvider {
      * @return true if valid, false if invalid
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return tokenCodec.decode(token).isValid();
     }
 
     /**
@@ -91,34 +116,58 @@ public class JwtProvider {
      * @param subject
      * @param authorities
      * @param expirationTime
+     * @param tokenId        "jti" claim, refresh tokens only
+     * @param familyId       "fam" claim, refresh tokens only
      * @return token as a string
      */
-    private String createToken(String subject, String authorities, long expirationTime) {
+    private String createToken(String subject, String authorities, long expirationTime, String tokenId, String familyId) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
-                .setSubject(subject)
-                .claim("auth", authorities)
-                .setExpiration(new Date(now + expirationTime))
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
+        return tokenCodec.encode(new TokenClaims(
+                subject, authorities, (now + expirationTime) / 1000L, tokenId, familyId));
     }
 
     /**
      * Parse the claims from a token
      *
      * @param token
-     * @return Claims object
+     * @return TokenClaims object
      */
-    private Claims parseClaims(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Parse Error");
+    private TokenClaims parseClaims(String token) {
+        TokenVerification verification = tokenCodec.decode(token);
+        if (!verification.isValid()) {
+            throw new DomainException(ErrorCode.INVALID_TOKEN);
         }
+        return verification.claims();
+    }
+
+    /**
+     * Verify a token and build its authentication object with a single parse
+     *
+     * @param token
+     * @return Authentication object with an {@link AuthenticatedUser} principal, or null if the token is invalid
+     */
+    public Authentication authenticate(String token) {
+        TokenVerification verification = tokenCodec.decode(token);
+        // Refresh tokens are only accepted by the refresh endpoint, never as bearer credentials
+        if (!verification.isValid() || verification.claims().isRefreshToken()) {
+            return null;
+        }
+        return toAuthentication(verification.claims());
+    }
+
+    /**
+     * Verify a refresh token
+     *
+     * @param token
+     * @return TokenClaims object carrying the token id and family
+     * @throws DomainException if the token is invalid or is not a refresh token
+     */
+    public TokenClaims parseRefreshToken(String token) {
+        TokenVerification verification = tokenCodec.decode(token);
+        if (!verification.isValid() || !verification.claims().isRefreshToken()) {
+            throw new DomainException(ErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        return verification.claims();
     }
 
     /**
@@ -128,20 +177,28 @@ public class JwtProvider {
      * @return Authentication object
      */
     public Authentication getAuthentication(String token) {
-        Claims claims = parseClaims(token);
+        return toAuthentication(parseClaims(token));
+    }
 
-        String authorities = claims.get("auth", String.class);
+    /**
+     * Build the authentication object from verified claims
+     *
+     * @param claims
+     * @return Authentication object
+     */
+    private Authentication toAuthentication(TokenClaims claims) {
+        String authorities = claims.authorities();
         if (authorities == null || authorities.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization Required");
+            throw new DomainException(ErrorCode.AUTHORIZATION_REQUIRED);
         }
 
         Collection<GrantedAuthority> grantedAuthorities = Arrays.stream(authorities.split(","))
                 .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
 
-        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
-                claims.getSubject(), "", grantedAuthorities);
-        return new UsernamePasswordAuthenticationToken(userDetails, "", grantedAuthorities);
+        AuthenticatedUser principal = new AuthenticatedUser(
+                claims.subject(), grantedAuthorities, claims.expiresAt() * 1000L);
+        return new UsernamePasswordAuthenticationToken(principal, "", grantedAuthorities);
     }
 
     /**
@@ -151,8 +208,7 @@ public class JwtProvider {
      * @return email as a string
      */
     public String getEmailFromToken(String token) {
-        Claims claims = parseClaims(token);
-        return claims.getSubject();
+        return parseClaims(token).subject();
     }
 }
 
@@ -162,4 +218,9 @@ public class JwtProvider {
 @ConfigurationProperties(prefix = "jwt")
 class JwtProperties {
     private String secret;
+
+    /**
+     * Token codec: "compact" (default, specialized HS256 path) or "jjwt" (reference implementation)
+     */
+    private String codec = "compact";
 }
\ No newline at end of file
@@ -0,0 +1,374 @@
+package com.kcdevdes.poppick.common.provider;
+
+import com.kcdevdes.poppick.common.provider.token.JwsAlgorithm;
+import com.kcdevdes.poppick.common.provider.token.JwsKey;
+import com.kcdevdes.poppick.common.provider.token.JwsKeyResolver;
+import com.kcdevdes.poppick.entity.SigningKey;
+import com.kcdevdes.poppick.repository.SigningKeyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory ring of asymmetric signing keys backed by the signing_keys table.
+ * <p>
+ * Every node reloads the ring periodically, so a key created by one node is picked up by the others.
+ * New keys are published (JWKS) for {@code publishLead} before they sign anything, which gives
+ * remote verifiers time to refresh their cached key set. Retired keys stay published until the last
+ * token they could have signed has expired.
+ * <p>
+ * Nodes due for a rotation at the same time serialize on a PostgreSQL advisory lock and check again
+ * before creating a key, so exactly one of them creates it.
+ */
+@Slf4j
+@Component
+public class SigningKeyRing implements JwsKeyResolver {
+
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    // "poppick" followed by 01, any constant shared by all nodes will do
+    private static final long ROTATION_LOCK_KEY = 0x706f707069636b01L;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SigningKeyProperties properties;
+    private final JwsAlgorithm algorithm;
+    private final SecretKeySpec sealingKey;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom random = new SecureRandom();
+    // Not synchronized: rotate() runs queries, which would pin the carrier of a virtual thread
+    private final ReentrantLock rotationLock = new ReentrantLock();
+
+    private volatile Ring ring = new Ring(List.of(), null, Map.of(), "{\"keys\":[]}", "\"empty\"");
+
+    public SigningKeyRing(SigningKeyRepository signingKeyRepository, SigningKeyProperties properties,
+                          JwtProperties jwtProperties, PlatformTransactionManager transactionManager) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.properties = properties;
+        this.algorithm = JwsAlgorithm.from(properties.getAlgorithm());
+        this.sealingKey = deriveSealingKey(jwtProperties.getSecret());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Check if tokens are signed with asymmetric keys
+     *
+     * @return true if the ring is in use
+     */
+    public boolean isEnabled() {
+        return algorithm.isAsymmetric();
+    }
+
+    /**
+     * Check if HS256 tokens issued before switching to asymmetric keys are still accepted
+     *
+     * @return true if HS256 tokens are accepted
+     */
+    public boolean acceptsHmac() {
+        return properties.isAcceptHmac();
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (isEnabled()) {
+            rotate();
+        }
+    }
+
+    @Override
+    public JwsKey signingKey() {
+        JwsKey current = ring.current();
+        if (current == null) {
+            throw new IllegalStateException("No active signing key");
+        }
+        return current;
+    }
+
+    @Override
+    public JwsKey resolve(String encodedHeader) {
+        return ring.byHeader().get(encodedHeader);
+    }
+
+    /**
+     * Get the published JSON Web Key Set
+     *
+     * @return JWKS document
+     */
+    public String getJwksJson() {
+        return ring.jwksJson();
+    }
+
+    /**
+     * Get the strong ETag of the published JSON Web Key Set
+     *
+     * @return quoted ETag value
+     */
+    public String getJwksEtag() {
+        return ring.jwksEtag();
+    }
+
+    public Duration getJwksMaxAge() {
+        return properties.getJwksMaxAge();
+    }
+
+    /**
+     * Reload the ring and create a new key when the newest one is due for rotation
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval-ms:60000}")
+    public void rotate() {
+        rotationLock.lock();
+        try {
+            rotateLocked();
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    private void rotateLocked() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SigningKey> keys = findKeys(now);
+        if (isRotationDue(keys, now)) {
+            // Other nodes may be due at the same moment: wait for the lock, then check again what they did
+            keys = transactionTemplate.execute(status -> {
+                signingKeyRepository.lockForUpdate(ROTATION_LOCK_KEY);
+                List<SigningKey> locked = findKeys(now);
+                if (!isRotationDue(locked, now)) {
+                    return locked;
+                }
+                if (locked.isEmpty()) {
+                    // Nothing can verify our tokens yet, so the first key may sign right away
+                    signingKeyRepository.save(newKey(now));
+                } else {
+                    signingKeyRepository.save(newKey(now.plus(properties.getPublishLead())));
+                    log.info("Scheduled a new {} signing key", algorithm.getJwsName());
+                }
+                return findKeys(now);
+            });
+        }
+
+        reload(keys, now);
+    }
+
+    private List<SigningKey> findKeys(LocalDateTime now) {
+        return signingKeyRepository.findByAlgorithmAndExpiresAtAfterOrderByActivatesAtDesc(
+                algorithm.getJwsName(), now);
+    }
+
+    private boolean isRotationDue(List<SigningKey> keys, LocalDateTime now) {
+        return keys.isEmpty() || keys.get(0).getActivatesAt().isBefore(now.minus(properties.getRotationInterval()));
+    }
+
+    private void reload(List<SigningKey> rows, LocalDateTime now) {
+        Map<String, JwsKey> previous = new HashMap<>();
+        ring.keys().forEach(key -> previous.put(key.kid(), key));
+
+        List<JwsKey> keys = rows.stream()
+                .map(row -> previous.containsKey(row.getKid()) ? previous.get(row.getKid()) : open(row))
+                .toList();
+
+        // Newest key that is already allowed to sign; rows are ordered by activation, newest first
+        JwsKey current = null;
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rows.get(i).getActivatesAt().isAfter(now)) {
+                current = keys.get(i);
+                break;
+            }
+        }
+
+        Map<String, JwsKey> byHeader = new HashMap<>();
+        keys.forEach(key -> byHeader.put(key.encodedHeader(), key));
+
+        String jwksJson = toJwks(keys);
+        ring = new Ring(keys, current, Map.copyOf(byHeader), jwksJson, etagOf(jwksJson));
+    }
+
+    private SigningKey newKey(LocalDateTime activatesAt) {
+        KeyPair keyPair = generateKeyPair();
+
+        SigningKey key = new SigningKey();
+        key.setKid(UUID.randomUUID().toString());
+        key.setAlgorithm(algorithm.getJwsName());
+        key.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        key.setSealedPrivateKey(seal(keyPair.getPrivate().getEncoded()));
+        key.setCreatedAt(LocalDateTime.now());
+        key.setActivatesAt(activatesAt);
+        // Signs until its successor activates, then stays valid for the longest token lifetime
+        key.setExpiresAt(activatesAt
+                .plus(properties.getRotationInterval())
+                .plus(properties.getPublishLead())
+                .plus(Duration.ofMillis(JwtProvider.REFRESH_TOKEN_EXPIRATION)));
+        return key;
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+            if (algorithm == JwsAlgorithm.ES256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate " + algorithm.getJwsName() + " key", e);
+        }
+    }
+
+    private JwsKey open(SigningKey row) {
+        try {
+            JwsAlgorithm keyAlgorithm = JwsAlgorithm.from(row.getAlgorithm());
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm.getKeyAlgorithm());
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(unseal(row.getSealedPrivateKey())));
+            return new JwsKey(row.getKid(), keyAlgorithm, privateKey, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not open signing key " + row.getKid(), e);
+        }
+    }
+
+    private String toJwks(List<JwsKey> keys) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < keys.size(); i++) {
+            JwsKey key = keys.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            if (key.algorithm() == JwsAlgorithm.ES256) {
+                ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+                json.append("\"kty\":\"EC\",\"crv\":\"P-256\"")
+                        .append(",\"x\":\"").append(coordinate(publicKey.getW().getAffineX())).append('"')
+                        .append(",\"y\":\"").append(coordinate(publicKey.getW().getAffineY())).append('"');
+            } else {
+                // X.509 encoding of an Ed25519 key is a fixed 12 byte prefix followed by the raw 32 byte key
+                byte[] encoded = key.publicKey().getEncoded();
+                byte[] raw = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+                json.append("\"kty\":\"OKP\",\"crv\":\"Ed25519\"")
+                        .append(",\"x\":\"").append(Base64.getUrlEncoder().withoutPadding().encodeToString(raw)).append('"');
+            }
+            json.append(",\"use\":\"sig\",\"alg\":\"").append(key.algorithm().getJwsName()).append('"')
+                    .append(",\"kid\":\"").append(key.kid()).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Encode a P-256 coordinate as a fixed 32 byte big-endian value
+     */
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static String etagOf(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String seal(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, sealingKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+
+            byte[] out = new byte[iv.length + sealed.length];
+            System.arraycopy(iv, 0, out, 0, iv.length);
+            System.arraycopy(sealed, 0, out, iv.length, sealed.length);
+            return Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not seal signing key", e);
+        }
+    }
+
+    private byte[] unseal(String sealed) throws GeneralSecurityException {
+        byte[] in = Base64.getDecoder().decode(sealed);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, sealingKey, new GCMParameterSpec(GCM_TAG_BITS, in, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(in, GCM_IV_LENGTH, in.length - GCM_IV_LENGTH);
+    }
+
+    private static SecretKeySpec deriveSealingKey(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(("poppick-signing-keys:" + secret).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(hash, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Ring(List<JwsKey> keys, JwsKey current, Map<String, JwsKey> byHeader,
+                        String jwksJson, String jwksEtag) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jwt.signing")
+class SigningKeyProperties {
+    /**
+     * HS256 (shared secret, default), ES256 or EdDSA
+     */
+    private String algorithm = "HS256";
+
+    /**
+     * Keep accepting HS256 tokens issued before switching to an asymmetric algorithm
+     */
+    private boolean acceptHmac = true;
+
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    /**
+     * How long a new key is published before it signs, should exceed the JWKS max-age
+     */
+    private Duration publishLead = Duration.ofMinutes(15);
+
+    private Duration jwksMaxAge = Duration.ofMinutes(5);
+}
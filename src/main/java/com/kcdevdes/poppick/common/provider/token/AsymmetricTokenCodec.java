@@ -0,0 +1,74 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * ES256 / EdDSA codec signing with the current key of a key ring.
+ * <p>
+ * Each key's header is pre-encoded, so verification selects the key with a single lookup on the
+ * header segment instead of parsing it, and signs and verifies with pooled, already initialized
+ * {@link java.security.Signature} objects of that key. Tokens whose header does not belong to the ring
+ * can be handed to a fallback codec, which keeps HS256 tokens issued before the switch valid until they expire.
+ */
+public class AsymmetricTokenCodec implements TokenCodec {
+
+    private final JwsKeyResolver keyResolver;
+    private final TokenCodec fallback;
+
+    /**
+     * @param keyResolver key ring
+     * @param fallback    codec for tokens signed outside the ring, may be null
+     */
+    public AsymmetricTokenCodec(JwsKeyResolver keyResolver, TokenCodec fallback) {
+        this.keyResolver = keyResolver;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String encode(TokenClaims claims) {
+        JwsKey key = keyResolver.signingKey();
+        String signingInput = key.encodedHeader() + '.' + CompactJws.payload(claims);
+        try {
+            byte[] signature = key.signatures().sign(CompactJws.ascii(signingInput, signingInput.length()));
+            return signingInput + '.' + CompactJws.encodeSegment(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign token with key " + key.kid(), e);
+        }
+    }
+
+    @Override
+    public TokenVerification decode(String token) {
+        if (token == null) {
+            return TokenVerification.rejected(TokenStatus.MALFORMED);
+        }
+
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return TokenVerification.rejected(TokenStatus.MALFORMED);
+        }
+
+        JwsKey key = keyResolver.resolve(token.substring(0, headerEnd));
+        if (key == null) {
+            return fallback != null ? fallback.decode(token) : TokenVerification.rejected(TokenStatus.UNSUPPORTED);
+        }
+
+        byte[] signatureBytes = CompactJws.decodeSegment(token, payloadEnd + 1, token.length());
+        if (signatureBytes == null) {
+            return TokenVerification.rejected(TokenStatus.INVALID_SIGNATURE);
+        }
+
+        boolean verified;
+        try {
+            verified = key.signatures().verify(CompactJws.ascii(token, payloadEnd), signatureBytes);
+        } catch (GeneralSecurityException e) {
+            // Wrongly sized or encoded signatures end up here
+            verified = false;
+        }
+        if (!verified) {
+            return TokenVerification.rejected(TokenStatus.INVALID_SIGNATURE);
+        }
+
+        return CompactJws.readClaims(token, headerEnd + 1, payloadEnd);
+    }
+}
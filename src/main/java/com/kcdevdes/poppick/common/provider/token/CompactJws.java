@@ -0,0 +1,374 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact JWS building blocks shared by the specialized codecs: base64url segments,
+ * serialization of the {@link TokenClaims} shape and an exception-free claims reader.
+ */
+final class CompactJws {
+
+    private static final int[] DECODE_TABLE = new int[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private CompactJws() {
+    }
+
+    /**
+     * Pre-encode a JOSE header
+     *
+     * @param json header JSON
+     * @return base64url header segment
+     */
+    static String header(String json) {
+        return encodeSegment(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serialize the claims into a payload segment, in the same member order jjwt uses
+     *
+     * @param claims
+     * @return base64url payload segment
+     */
+    static String payload(TokenClaims claims) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"sub\":");
+        appendString(json, claims.subject());
+        json.append(",\"auth\":");
+        appendString(json, claims.authorities());
+        json.append(",\"exp\":").append(claims.expiresAt());
+        if (claims.tokenId() != null) {
+            json.append(",\"jti\":");
+            appendString(json, claims.tokenId());
+        }
+        if (claims.familyId() != null) {
+            json.append(",\"fam\":");
+            appendString(json, claims.familyId());
+        }
+        json.append('}');
+        return encodeSegment(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode and check the payload segment of an already verified token
+     *
+     * @param token
+     * @param from  start of the payload segment (inclusive)
+     * @param to    end of the payload segment (exclusive)
+     * @return verification result
+     */
+    static TokenVerification readClaims(String token, int from, int to) {
+        byte[] payload = decodeSegment(token, from, to);
+        if (payload == null) {
+            return TokenVerification.rejected(TokenStatus.MALFORMED);
+        }
+
+        PayloadReader reader = new PayloadReader(new String(payload, StandardCharsets.UTF_8));
+        if (!reader.read() || !reader.hasExpiration) {
+            return TokenVerification.rejected(TokenStatus.MALFORMED);
+        }
+
+        // Same rule as jjwt without clock skew: the token is still valid at the exact expiration instant
+        if (System.currentTimeMillis() > reader.expiresAt * 1000L) {
+            return TokenVerification.rejected(TokenStatus.EXPIRED);
+        }
+
+        return TokenVerification.valid(new TokenClaims(
+                reader.subject, reader.authorities, reader.expiresAt, reader.tokenId, reader.familyId));
+    }
+
+    /**
+     * Copy the first {@code length} characters of the signing input into bytes.
+     * Compact JWS signing input is always ASCII, so a narrowing copy is an exact encoding.
+     *
+     * @param input
+     * @param length
+     * @return ASCII bytes
+     */
+    static byte[] ascii(String input, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) input.charAt(i);
+        }
+        return bytes;
+    }
+
+    static String encodeSegment(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decode a base64url segment without padding
+     *
+     * @param source
+     * @param from   start index (inclusive)
+     * @param to     end index (exclusive)
+     * @return decoded bytes, or null if the segment is not valid base64url
+     */
+    static byte[] decodeSegment(String source, int from, int to) {
+        int length = to - from;
+        int remainder = length % 4;
+        if (remainder == 1) {
+            return null;
+        }
+
+        byte[] out = new byte[(length / 4) * 3 + (remainder == 0 ? 0 : remainder - 1)];
+        int buffer = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[position++] = (byte) (buffer >> bits);
+            }
+        }
+        return out;
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Minimal reader for a flat JSON object of string / number / literal members.
+     * Reports failure through its return value instead of throwing.
+     */
+    private static final class PayloadReader {
+        private final String json;
+        private int position;
+
+        private String subject;
+        private String authorities;
+        private long expiresAt;
+        private boolean hasExpiration;
+        private String tokenId;
+        private String familyId;
+
+        private PayloadReader(String json) {
+            this.json = json;
+        }
+
+        private boolean read() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return atEnd();
+            }
+
+            while (true) {
+                String name = readString();
+                if (name == null) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+
+                boolean ok = switch (name) {
+                    case "sub" -> skipNull() || (subject = readString()) != null;
+                    case "auth" -> skipNull() || (authorities = readString()) != null;
+                    case "exp" -> readExpiration();
+                    case "jti" -> skipNull() || (tokenId = readString()) != null;
+                    case "fam" -> skipNull() || (familyId = readString()) != null;
+                    default -> skipValue();
+                };
+                if (!ok) {
+                    return false;
+                }
+
+                skipWhitespace();
+                if (consume(',')) {
+                    skipWhitespace();
+                    continue;
+                }
+                return consume('}') && atEnd();
+            }
+        }
+
+        private boolean skipNull() {
+            if (json.startsWith("null", position)) {
+                position += 4;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean readExpiration() {
+            int start = position;
+            long value = 0;
+            while (position < json.length() && position - start < 18) {
+                char c = json.charAt(position);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                position++;
+            }
+            if (position == start || (position < json.length() && isNumberChar(json.charAt(position)))) {
+                // Empty, negative, fractional, exponent or oversized values are not produced by us
+                return false;
+            }
+            expiresAt = value;
+            hasExpiration = true;
+            return true;
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = position;
+            StringBuilder escaped = null;
+            while (position < json.length()) {
+                char c = json.charAt(position);
+                if (c == '"') {
+                    String value = escaped == null
+                            ? json.substring(start, position)
+                            : escaped.append(json, start, position).toString();
+                    position++;
+                    return value;
+                }
+                if (c < 0x20) {
+                    return null;
+                }
+                if (c != '\\') {
+                    position++;
+                    continue;
+                }
+
+                if (escaped == null) {
+                    escaped = new StringBuilder();
+                }
+                escaped.append(json, start, position);
+                if (position + 1 >= json.length()) {
+                    return null;
+                }
+                char code = json.charAt(position + 1);
+                position += 2;
+                switch (code) {
+                    case '"', '\\', '/' -> escaped.append(code);
+                    case 'b' -> escaped.append('\b');
+                    case 'f' -> escaped.append('\f');
+                    case 'n' -> escaped.append('\n');
+                    case 'r' -> escaped.append('\r');
+                    case 't' -> escaped.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > json.length()) {
+                            return null;
+                        }
+                        int unicode = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(json.charAt(position + i), 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            unicode = (unicode << 4) | digit;
+                        }
+                        escaped.append((char) unicode);
+                        position += 4;
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+                start = position;
+            }
+            return null;
+        }
+
+        private boolean skipValue() {
+            if (position >= json.length()) {
+                return false;
+            }
+            char c = json.charAt(position);
+            if (c == '"') {
+                return readString() != null;
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                int start = position;
+                while (position < json.length() && isNumberChar(json.charAt(position))) {
+                    position++;
+                }
+                return position > start;
+            }
+            for (String literal : new String[]{"true", "false", "null"}) {
+                if (json.startsWith(literal, position)) {
+                    position += literal.length();
+                    return true;
+                }
+            }
+            // Nested objects and arrays are not part of our claim shape
+            return false;
+        }
+
+        private static boolean isNumberChar(char c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private boolean consume(char expected) {
+            if (position < json.length() && json.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length()) {
+                char c = json.charAt(position);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return position == json.length();
+        }
+    }
+}
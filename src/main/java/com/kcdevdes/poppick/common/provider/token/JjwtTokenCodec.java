@@ -0,0 +1,74 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.Key;
+import java.util.Date;
+
+/**
+ * Reference codec backed by jjwt
+ */
+public class JjwtTokenCodec implements TokenCodec {
+
+    private final Key key;
+    private final JwtParser parser;
+
+    public JjwtTokenCodec(byte[] secret) {
+        this.key = Keys.hmacShaKeyFor(secret);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    @Override
+    public String encode(TokenClaims claims) {
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(claims.subject())
+                .claim("auth", claims.authorities())
+                .setExpiration(new Date(claims.expiresAt() * 1000L));
+        if (claims.tokenId() != null) {
+            builder.setId(claims.tokenId());
+        }
+        if (claims.familyId() != null) {
+            builder.claim("fam", claims.familyId());
+        }
+        return builder
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Override
+    public TokenVerification decode(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                // Every token we issue expires, same rule as the compact codecs
+                return TokenVerification.rejected(TokenStatus.MALFORMED);
+            }
+            return TokenVerification.valid(new TokenClaims(
+                    claims.getSubject(),
+                    claims.get("auth", String.class),
+                    expiration.getTime() / 1000L,
+                    claims.getId(),
+                    claims.get("fam", String.class)
+            ));
+        } catch (ExpiredJwtException e) {
+            return TokenVerification.rejected(TokenStatus.EXPIRED);
+        } catch (SignatureException e) {
+            return TokenVerification.rejected(TokenStatus.INVALID_SIGNATURE);
+        } catch (UnsupportedJwtException e) {
+            return TokenVerification.rejected(TokenStatus.UNSUPPORTED);
+        } catch (Exception e) {
+            return TokenVerification.rejected(TokenStatus.MALFORMED);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Signing algorithms supported for issued tokens
+ */
+public enum JwsAlgorithm {
+    HS256("HS256", null, null),
+    ES256("ES256", "SHA256withECDSAinP1363Format", "EC"),
+    EDDSA("EdDSA", "Ed25519", "Ed25519");
+
+    private final String jwsName;
+    private final String signatureAlgorithm;
+    private final String keyAlgorithm;
+
+    JwsAlgorithm(String jwsName, String signatureAlgorithm, String keyAlgorithm) {
+        this.jwsName = jwsName;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
+    /**
+     * "alg" header value
+     */
+    public String getJwsName() {
+        return jwsName;
+    }
+
+    /**
+     * JCA {@link java.security.Signature} algorithm, null for HMAC
+     */
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * JCA key algorithm used by {@link java.security.KeyFactory} and {@link java.security.KeyPairGenerator}
+     */
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return signatureAlgorithm != null;
+    }
+
+    /**
+     * Resolve an algorithm from its configuration value
+     *
+     * @param value "HS256", "ES256" or "EdDSA" (case-insensitive)
+     * @return JwsAlgorithm
+     */
+    public static JwsAlgorithm from(String value) {
+        for (JwsAlgorithm algorithm : values()) {
+            if (algorithm.jwsName.equalsIgnoreCase(value)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * An asymmetric signing key with its pre-encoded JOSE header
+ *
+ * @param kid           key id
+ * @param algorithm     signing algorithm
+ * @param privateKey    signing key, null for verification-only keys
+ * @param publicKey     verification key
+ * @param encodedHeader base64url {"alg":...,"kid":...} header segment
+ * @param signatures    initialized Signature objects for this key, reused across tokens
+ */
+public record JwsKey(String kid, JwsAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey,
+                     String encodedHeader, SignaturePool signatures) {
+
+    public JwsKey(String kid, JwsAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        this(kid, algorithm, privateKey, publicKey,
+                CompactJws.header("{\"alg\":\"" + algorithm.getJwsName() + "\",\"kid\":\"" + kid + "\"}"),
+                new SignaturePool(algorithm.getSignatureAlgorithm(), privateKey, publicKey));
+    }
+}
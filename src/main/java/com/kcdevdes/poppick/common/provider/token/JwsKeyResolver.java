@@ -0,0 +1,22 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Source of asymmetric keys for {@link AsymmetricTokenCodec}
+ */
+public interface JwsKeyResolver {
+
+    /**
+     * Get the key new tokens are signed with
+     *
+     * @return JwsKey object
+     */
+    JwsKey signingKey();
+
+    /**
+     * Find a verification key by the exact header segment of a token
+     *
+     * @param encodedHeader base64url header segment
+     * @return JwsKey object, or null if no key of the ring produced this header
+     */
+    JwsKey resolve(String encodedHeader);
+}
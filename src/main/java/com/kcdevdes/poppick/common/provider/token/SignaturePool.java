@@ -0,0 +1,77 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pools of initialized {@link Signature} objects for one key.
+ * <p>
+ * A Signature is not thread-safe and the EC and EdDSA implementations cannot be cloned, but {@code sign()} and
+ * {@code verify()} reset it to its initialized state, so it can be handed from one request to the next. This
+ * saves the provider lookup and key setup per token, also with one virtual thread per request, where a
+ * thread-local instance would be created again every time. Objects left in an unknown state by an exception
+ * are dropped; at most a few per core are kept.
+ */
+public final class SignaturePool {
+
+    private static final int CAPACITY = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final String algorithm;
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    private final ArrayBlockingQueue<Signature> signers = new ArrayBlockingQueue<>(CAPACITY);
+    private final ArrayBlockingQueue<Signature> verifiers = new ArrayBlockingQueue<>(CAPACITY);
+
+    /**
+     * @param algorithm  JCA signature algorithm
+     * @param privateKey signing key, null for verification-only keys
+     * @param publicKey  verification key
+     */
+    SignaturePool(String algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        this.algorithm = algorithm;
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * Sign data with the private key
+     *
+     * @param data
+     * @return signature bytes
+     * @throws GeneralSecurityException if the key cannot sign
+     */
+    byte[] sign(byte[] data) throws GeneralSecurityException {
+        Signature signature = signers.poll();
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm);
+            signature.initSign(privateKey);
+        }
+        signature.update(data);
+        byte[] signed = signature.sign();
+        signers.offer(signature);
+        return signed;
+    }
+
+    /**
+     * Verify a signature with the public key
+     *
+     * @param data
+     * @param signatureBytes
+     * @return true if the signature is valid
+     * @throws GeneralSecurityException if the signature is malformed
+     */
+    boolean verify(byte[] data, byte[] signatureBytes) throws GeneralSecurityException {
+        Signature signature = verifiers.poll();
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm);
+            signature.initVerify(publicKey);
+        }
+        signature.update(data);
+        boolean verified = signature.verify(signatureBytes);
+        verifiers.offer(signature);
+        return verified;
+    }
+}
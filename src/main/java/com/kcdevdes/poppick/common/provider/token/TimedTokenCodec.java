@@ -0,0 +1,59 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records signing and verification times of another codec.
+ * Timers are resolved once up front, so a call costs two clock reads and a histogram update.
+ */
+public class TimedTokenCodec implements TokenCodec {
+
+    private final TokenCodec delegate;
+    private final Timer generation;
+    private final Map<TokenStatus, Timer> verification = new EnumMap<>(TokenStatus.class);
+
+    public TimedTokenCodec(TokenCodec delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.generation = timer("poppick.token.generation", "Time to sign a token")
+                .register(meterRegistry);
+        for (TokenStatus status : TokenStatus.values()) {
+            verification.put(status, timer("poppick.token.verification", "Time to verify a token")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public String encode(TokenClaims claims) {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(claims);
+        } finally {
+            generation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public TokenVerification decode(String token) {
+        long start = System.nanoTime();
+        TokenVerification result = delegate.decode(token);
+        verification.get(result.status()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        // Signing and verification take microseconds, bounding the range keeps the bucket count small
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,24 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Fixed claim shape of the tokens issued by this service
+ *
+ * @param subject     "sub" claim - user email
+ * @param authorities "auth" claim - comma separated authorities
+ * @param expiresAt   "exp" claim - expiration (epoch seconds)
+ * @param tokenId     "jti" claim - only present on refresh tokens
+ * @param familyId    "fam" claim - rotation family of a refresh token
+ */
+public record TokenClaims(String subject, String authorities, long expiresAt, String tokenId, String familyId) {
+
+    /**
+     * Claims of an access token
+     */
+    public TokenClaims(String subject, String authorities, long expiresAt) {
+        this(subject, authorities, expiresAt, null, null);
+    }
+
+    public boolean isRefreshToken() {
+        return tokenId != null && familyId != null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Signs and verifies compact JWS tokens.
+ * Implementations must be thread-safe and must not throw on invalid input; rejections are
+ * reported through the returned {@link TokenVerification}.
+ */
+public interface TokenCodec {
+
+    /**
+     * Sign a token
+     *
+     * @param claims
+     * @return compact JWS string
+     */
+    String encode(TokenClaims claims);
+
+    /**
+     * Verify a token
+     *
+     * @param token compact JWS string
+     * @return verification result
+     */
+    TokenVerification decode(String token);
+}
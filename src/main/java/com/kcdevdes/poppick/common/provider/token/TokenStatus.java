@@ -0,0 +1,12 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Result code of a token verification
+ */
+public enum TokenStatus {
+    VALID,
+    MALFORMED,
+    UNSUPPORTED,
+    INVALID_SIGNATURE,
+    EXPIRED
+}
@@ -0,0 +1,39 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+/**
+ * Outcome of {@link TokenCodec#decode(String)}
+ *
+ * @param status result code
+ * @param claims verified claims, only present when the status is {@link TokenStatus#VALID}
+ */
+public record TokenVerification(TokenStatus status, TokenClaims claims) {
+
+    private static final TokenVerification MALFORMED = new TokenVerification(TokenStatus.MALFORMED, null);
+    private static final TokenVerification UNSUPPORTED = new TokenVerification(TokenStatus.UNSUPPORTED, null);
+    private static final TokenVerification INVALID_SIGNATURE = new TokenVerification(TokenStatus.INVALID_SIGNATURE, null);
+    private static final TokenVerification EXPIRED = new TokenVerification(TokenStatus.EXPIRED, null);
+
+    public static TokenVerification valid(TokenClaims claims) {
+        return new TokenVerification(TokenStatus.VALID, claims);
+    }
+
+    /**
+     * Get the shared, claim-less result for a rejection status
+     *
+     * @param status
+     * @return TokenVerification object
+     */
+    public static TokenVerification rejected(TokenStatus status) {
+        return switch (status) {
+            case MALFORMED -> MALFORMED;
+            case UNSUPPORTED -> UNSUPPORTED;
+            case INVALID_SIGNATURE -> INVALID_SIGNATURE;
+            case EXPIRED -> EXPIRED;
+            case VALID -> throw new IllegalArgumentException("A valid result requires claims");
+        };
+    }
+
+    public boolean isValid() {
+        return status == TokenStatus.VALID;
+    }
+}
@@ -0,0 +1,22 @@
+package com.kcdevdes.poppick.common.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Principal built once from a verified access token and stored in the SecurityContext
+ *
+ * @param email       token subject
+ * @param authorities granted authorities from the "auth" claim
+ * @param expiresAt   token expiration (epoch millis)
+ */
+public record AuthenticatedUser(String email, Collection<GrantedAuthority> authorities, long expiresAt)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
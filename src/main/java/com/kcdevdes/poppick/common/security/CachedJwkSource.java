@@ -0,0 +1,297 @@
+package com.kcdevdes.poppick.common.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory JWK set that is refreshed in the background before it expires.
+ * <p>
+ * Request threads only read the current snapshot. Refreshes run on a single background thread and
+ * concurrent triggers share the same in-flight fetch. Optionally, every successful fetch is persisted to disk so a
+ * restarted node can verify tokens before its first fetch completes, or while the origin is unreachable.
+ * The persisted keys are trusted, so the copy is only read back from a directory and file that belong to the
+ * current user and are not accessible to anyone else, and only while it is younger than {@code cacheMaxAge}.
+ * A token signed with an unknown key id triggers an early refresh (key rollover), rate limited by
+ * {@code minRefreshInterval}.
+ */
+@Slf4j
+public class CachedJwkSource implements JWKSource<SecurityContext> {
+
+    private static final Set<PosixFilePermission> GROUP_OR_OTHERS = EnumSet.of(
+            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE);
+
+    private final JwkSetLoader loader;
+    private final Path cacheFile;
+    private final Duration cacheMaxAge;
+    private final Duration defaultTtl;
+    private final Duration refreshAhead;
+    private final Duration minRefreshInterval;
+    private final Duration fetchTimeout;
+    private final ExecutorService executor;
+
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private volatile Snapshot snapshot;
+    private volatile Instant lastAttempt = Instant.EPOCH;
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param loader             origin of the key set
+     * @param cacheFile          on-disk copy of the last fetched key set, null to disable
+     * @param cacheMaxAge        oldest on-disk copy that is still restored on startup
+     * @param defaultTtl         lifetime when the origin does not advertise one
+     * @param refreshAhead       how long before expiry the background refresh starts
+     * @param minRefreshInterval minimum time between two fetches triggered by unknown key ids
+     * @param fetchTimeout       how long a request waits for a fetch it depends on
+     */
+    public CachedJwkSource(JwkSetLoader loader, Path cacheFile, Duration cacheMaxAge, Duration defaultTtl,
+                           Duration refreshAhead, Duration minRefreshInterval, Duration fetchTimeout) {
+        this.loader = loader;
+        this.cacheFile = cacheFile;
+        this.cacheMaxAge = cacheMaxAge;
+        this.defaultTtl = defaultTtl;
+        this.refreshAhead = refreshAhead;
+        this.minRefreshInterval = minRefreshInterval;
+        this.fetchTimeout = fetchTimeout;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Restore the persisted key set and prefetch a fresh one
+     */
+    @PostConstruct
+    public void initialize() {
+        snapshot = readCacheFile();
+        refresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = await(refresh());
+        }
+
+        List<JWK> keys = jwkSelector.select(current.jwkSet());
+        if (keys.isEmpty() && Instant.now().isAfter(lastAttempt.plus(minRefreshInterval))) {
+            // Unknown key id, most likely the origin rotated its keys since our last fetch
+            current = await(refresh());
+            keys = jwkSelector.select(current.jwkSet());
+        }
+        return keys;
+    }
+
+    /**
+     * Start a refresh when the snapshot is about to expire
+     */
+    @Scheduled(fixedDelayString = "${oauth.google.jwks.check-interval-ms:30000}")
+    public void refreshIfStale() {
+        Snapshot current = snapshot;
+        if (current == null || !Instant.now().isBefore(current.refreshAt())) {
+            refresh();
+        }
+    }
+
+    /**
+     * Get a snapshot of the fetch counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        Snapshot current = snapshot;
+        return new Stats(fetches.sum(), failures.sum(), current == null ? null : current.fetchedAt());
+    }
+
+    /**
+     * Fetch the key set on the background thread, joining the fetch already in flight if there is one
+     *
+     * @return future completed with the new snapshot
+     */
+    private CompletableFuture<Snapshot> refresh() {
+        while (true) {
+            CompletableFuture<Snapshot> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+
+            CompletableFuture<Snapshot> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                lastAttempt = Instant.now();
+                executor.execute(() -> fetch(created));
+                return created;
+            }
+        }
+    }
+
+    private void fetch(CompletableFuture<Snapshot> result) {
+        try {
+            fetches.increment();
+            JwkSetLoader.JwkSetDocument document = loader.load();
+            JWKSet jwkSet = JWKSet.parse(document.json());
+
+            Instant now = Instant.now();
+            Duration ttl = document.maxAge() != null ? document.maxAge() : defaultTtl;
+            Instant refreshAt = now.plus(ttl).minus(refreshAhead);
+            Snapshot fetched = new Snapshot(jwkSet, now, refreshAt.isAfter(now.plus(minRefreshInterval))
+                    ? refreshAt
+                    : now.plus(minRefreshInterval));
+
+            snapshot = fetched;
+            writeCacheFile(document.json());
+            result.complete(fetched);
+        } catch (IOException | ParseException | RuntimeException e) {
+            failures.increment();
+            log.warn("Could not refresh JWK set: {}", e.getMessage());
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.compareAndSet(result, null);
+        }
+    }
+
+    /**
+     * Wait for a fetch, falling back to the current snapshot if it fails
+     *
+     * @param pending
+     * @return fetched or current snapshot
+     * @throws KeySourceException if the fetch failed and there is nothing to fall back to
+     */
+    private Snapshot await(CompletableFuture<Snapshot> pending) throws KeySourceException {
+        try {
+            return pending.get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(e);
+        } catch (ExecutionException | TimeoutException e) {
+            return fallback(e);
+        }
+    }
+
+    private Snapshot fallback(Exception cause) throws KeySourceException {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new KeySourceException("JWK set is not available", cause);
+        }
+        return current;
+    }
+
+    private Snapshot readCacheFile() {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile, LinkOption.NOFOLLOW_LINKS)) {
+            return null;
+        }
+        try {
+            if (!isPrivate(cacheFile.toAbsolutePath().getParent()) || !isPrivate(cacheFile)) {
+                log.warn("Ignoring JWK set cache {}: it must be owned by the current user and not be accessible "
+                        + "to group or others", cacheFile);
+                return null;
+            }
+
+            Instant modifiedAt = Files.getLastModifiedTime(cacheFile).toInstant();
+            if (modifiedAt.plus(cacheMaxAge).isBefore(Instant.now())) {
+                log.info("Ignoring JWK set cache {} older than {}", cacheFile, cacheMaxAge);
+                return null;
+            }
+
+            JWKSet jwkSet = JWKSet.parse(Files.readString(cacheFile, StandardCharsets.UTF_8));
+            // Usable right away, but always refreshed on startup
+            return new Snapshot(jwkSet, modifiedAt, Instant.now());
+        } catch (IOException | ParseException e) {
+            log.warn("Ignoring unreadable JWK set cache {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Check that a path belongs to the current user and grants nothing to group or others.
+     * Always false where POSIX attributes are not supported, the cache is then never read back.
+     *
+     * @param path
+     * @return true if only the current user can read or replace the path
+     */
+    private static boolean isPrivate(Path path) throws IOException {
+        try {
+            PosixFileAttributes attributes =
+                    Files.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            UserPrincipal currentUser = FileSystems.getDefault().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            return attributes.owner().equals(currentUser)
+                    && attributes.permissions().stream().noneMatch(GROUP_OR_OTHERS::contains);
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private void writeCacheFile(String json) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            if (!Files.isDirectory(parent)) {
+                Files.createDirectories(parent,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            if (!isPrivate(parent)) {
+                log.warn("Not persisting JWK set: {} must be owned by the current user with mode 700", parent);
+                return;
+            }
+            // Created with mode 600
+            Path temporary = Files.createTempFile(parent, "jwks", ".tmp");
+            Files.writeString(temporary, json, StandardCharsets.UTF_8);
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The in-memory copy is still current, only the next cold start loses its head start
+            log.warn("Could not persist JWK set to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private record Snapshot(JWKSet jwkSet, Instant fetchedAt, Instant refreshAt) {
+    }
+
+    public record Stats(long fetches, long failures, Instant lastFetchedAt) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.kcdevdes.poppick.common.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads a key set from a local file, for offline runs and tests
+ */
+public class FileJwkSetLoader implements JwkSetLoader {
+
+    private final Path path;
+
+    public FileJwkSetLoader(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public JwkSetDocument load() throws IOException {
+        return new JwkSetDocument(Files.readString(path, StandardCharsets.UTF_8), null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.kcdevdes.poppick.common.security;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Fetches a raw JSON Web Key Set for {@link CachedJwkSource}.
+ * Implementations are swappable so the decoder can run against a local file offline.
+ */
+public interface JwkSetLoader {
+
+    /**
+     * Load the key set
+     *
+     * @return JWKS document and how long it may be cached
+     * @throws IOException if the key set cannot be read
+     */
+    JwkSetDocument load() throws IOException;
+
+    /**
+     * @param json   raw JWKS
+     * @param maxAge freshness lifetime advertised by the origin, null if unknown
+     */
+    record JwkSetDocument(String json, Duration maxAge) {
+    }
+}
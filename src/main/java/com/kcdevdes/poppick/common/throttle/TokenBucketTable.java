@@ -0,0 +1,163 @@
+package com.kcdevdes.poppick.common.throttle;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size table of lock-free token buckets shared by an unbounded key space.
+ * <p>
+ * Each key is hashed (with a per-process random seed, so collisions cannot be precomputed) onto two
+ * slots. A request is allowed while at least one of its slots still has a token and consumes from every
+ * slot that has one, so a heavy key drains both of its slots while a light key sharing only one of them
+ * keeps passing. Memory stays at one {@code long} per slot no matter how many distinct keys show up.
+ * <p>
+ * Slot layout: the upper 44 bits hold the last refill time in milliseconds since the table was created,
+ * the lower 20 bits the token count in thousandths of a token. A zero slot is an untouched, full bucket.
+ */
+class TokenBucketTable {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long SCALE = 1000L;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long capacity;
+    private final double refillPerMilli;
+    private final long seed = new SecureRandom().nextLong();
+    private final long origin = System.currentTimeMillis() - 1;
+
+    /**
+     * @param slotCount       number of slots, rounded up to a power of two
+     * @param capacity        bucket size in tokens
+     * @param refillPerMinute tokens added back per minute
+     */
+    TokenBucketTable(int slotCount, int capacity, int refillPerMinute) {
+        if (capacity <= 0 || capacity * SCALE > TOKEN_MASK) {
+            throw new IllegalArgumentException("Bucket capacity must be between 1 and " + TOKEN_MASK / SCALE);
+        }
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacity = capacity * SCALE;
+        this.refillPerMilli = refillPerMinute * SCALE / 60_000.0;
+    }
+
+    /**
+     * Take a token for a key
+     *
+     * @param key
+     * @return true if the request is allowed
+     */
+    boolean tryAcquire(String key) {
+        long hash = hash(key);
+        int first = firstSlot(hash);
+        int second = secondSlot(hash, first);
+
+        long now = System.currentTimeMillis() - origin;
+        // Non short-circuit: a granted request is charged to every slot that can pay for it
+        return tryAcquire(first, now) | tryAcquire(second, now);
+    }
+
+    /**
+     * Check whether a key could take a token, without taking it
+     *
+     * @param key
+     * @return true if {@link #tryAcquire(String)} would currently allow the request
+     */
+    boolean hasToken(String key) {
+        long hash = hash(key);
+        int first = firstSlot(hash);
+        int second = secondSlot(hash, first);
+
+        long now = System.currentTimeMillis() - origin;
+        return tokens(slots.get(first), now) >= SCALE || tokens(slots.get(second), now) >= SCALE;
+    }
+
+    /**
+     * Count the slots that are currently below full capacity
+     *
+     * @return number of occupied slots
+     */
+    int occupiedSlots() {
+        long now = System.currentTimeMillis() - origin;
+        int occupied = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long state = slots.get(i);
+            if (state != 0 && tokens(state, now) < capacity) {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    int size() {
+        return slots.length();
+    }
+
+    private int firstSlot(long hash) {
+        return (int) hash & mask;
+    }
+
+    private int secondSlot(long hash, int first) {
+        int second = (int) (hash >>> 32) & mask;
+        return second != first ? second : (first + 1) & mask;
+    }
+
+    private boolean tryAcquire(int slot, long now) {
+        while (true) {
+            long state = slots.get(slot);
+            long last = state == 0 ? now : state >>> TOKEN_BITS;
+            long elapsed = Math.max(0, now - last);
+            long added = (long) (elapsed * refillPerMilli);
+            long tokens = (state == 0 ? capacity : state & TOKEN_MASK) + added;
+
+            // Only advance the refill clock by the time actually converted into tokens,
+            // otherwise frequent attempts would keep discarding the fractional refill
+            long refilledAt;
+            if (tokens >= capacity) {
+                tokens = capacity;
+                refilledAt = now;
+            } else {
+                refilledAt = last + (long) (added / refillPerMilli);
+            }
+
+            if (tokens < SCALE) {
+                return false;
+            }
+            long next = (refilledAt << TOKEN_BITS) | (tokens - SCALE);
+            if (slots.compareAndSet(slot, state, next)) {
+                return true;
+            }
+        }
+    }
+
+    private long tokens(long state, long now) {
+        if (state == 0) {
+            return capacity;
+        }
+        long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+        long refilled = (state & TOKEN_MASK) + (long) (elapsed * refillPerMilli);
+        return Math.min(capacity, refilled);
+    }
+
+    /**
+     * Seeded FNV-1a followed by a 64-bit finalizer
+     *
+     * @param key
+     * @return well mixed 64-bit hash
+     */
+    private long hash(String key) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
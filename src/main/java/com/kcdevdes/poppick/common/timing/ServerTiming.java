@@ -0,0 +1,132 @@
+package com.kcdevdes.poppick.common.timing;
+
+/**
+ * Per-request accumulator behind the {@code Server-Timing} response header.
+ * <p>
+ * Only exists for requests that asked for timings, see {@link ServerTimingFilter}; everywhere else
+ * {@link #current()} is null and instrumented code skips even the clock reads. The accumulator belongs to the
+ * request thread and is not thread-safe: work handed to other threads is timed by the waiting caller.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startedAt = System.nanoTime();
+    private final long[] durations = new long[Phase.values().length];
+    private final boolean[] recorded = new boolean[Phase.values().length];
+    private int queries;
+    private long serializationStartedAt;
+    private boolean granted;
+
+    private ServerTiming(boolean granted) {
+        this.granted = granted;
+    }
+
+    /**
+     * Get the accumulator of the request running on this thread
+     *
+     * @return ServerTiming, or null when the request did not ask for timings
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    static ServerTiming begin(boolean granted) {
+        ServerTiming timing = new ServerTiming(granted);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Add time spent in a phase
+     *
+     * @param phase
+     * @param nanos
+     */
+    public void add(Phase phase, long nanos) {
+        durations[phase.ordinal()] += nanos;
+        recorded[phase.ordinal()] = true;
+    }
+
+    /**
+     * Add one executed statement to the database phase
+     *
+     * @param nanos
+     */
+    public void addQuery(long nanos) {
+        add(Phase.DB, nanos);
+        queries++;
+    }
+
+    void startSerialization() {
+        serializationStartedAt = System.nanoTime();
+    }
+
+    void endSerialization() {
+        if (serializationStartedAt != 0) {
+            add(Phase.SERIALIZE, System.nanoTime() - serializationStartedAt);
+            serializationStartedAt = 0;
+        }
+    }
+
+    /**
+     * Mark the end of the filters in front of the handler
+     */
+    void endSecurity() {
+        add(Phase.SECURITY, System.nanoTime() - startedAt);
+    }
+
+    void grant() {
+        granted = true;
+    }
+
+    boolean isGranted() {
+        return granted;
+    }
+
+    /**
+     * Render the recorded phases and the total, in milliseconds
+     *
+     * @return header value, e.g. {@code jwt;dur=0.081, db;dur=1.942;desc="2 queries", total;dur=3.310}
+     */
+    String toHeaderValue() {
+        StringBuilder value = new StringBuilder(160);
+        for (Phase phase : Phase.values()) {
+            if (!recorded[phase.ordinal()]) {
+                continue;
+            }
+            value.append(phase.metric).append(";dur=").append(millis(durations[phase.ordinal()]));
+            if (phase == Phase.DB) {
+                value.append(";desc=\"").append(queries).append(queries == 1 ? " query\"" : " queries\"");
+            } else {
+                value.append(";desc=\"").append(phase.description).append('"');
+            }
+            value.append(", ");
+        }
+        return value.append("total;dur=").append(millis(System.nanoTime() - startedAt)).toString();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    public enum Phase {
+        JWT("jwt", "JWT verification"),
+        SECURITY("security", "Security filter chain"),
+        DB("db", null),
+        HASH("hash", "Password hashing"),
+        SERIALIZE("serialize", "Serialization");
+
+        private final String metric;
+        private final String description;
+
+        Phase(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+}
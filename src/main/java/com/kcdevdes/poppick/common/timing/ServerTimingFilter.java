@@ -0,0 +1,97 @@
+package com.kcdevdes.poppick.common.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Adds a {@code Server-Timing} header breaking a request down into JWT verification, security filter chain,
+ * database time and query count, password hashing and serialization.
+ * <p>
+ * Opt-in twice: the feature must be enabled (server-timing.enabled), and each request has to ask for it with
+ * the request header, carrying the configured token if one is set. When an authority is configured, the header
+ * is only returned to principals holding it. Runs in front of Spring Security so the whole chain is covered;
+ * timed responses are buffered so the header can still be set after the body was serialized.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String HEADER = "Server-Timing";
+
+    private final ServerTimingProperties properties;
+    private final byte[] token;
+
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.properties = properties;
+        this.token = StringUtils.hasText(properties.getToken())
+                ? properties.getToken().getBytes(StandardCharsets.UTF_8)
+                : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String requested = request.getHeader(properties.getRequestHeader());
+        if (requested == null) {
+            return true;
+        }
+        return token != null && !MessageDigest.isEqual(token, requested.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.begin(!StringUtils.hasText(properties.getAuthority()));
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            ServerTiming.end();
+        }
+
+        timing.endSerialization();
+        if (timing.isGranted()) {
+            buffered.setHeader(HEADER, timing.toHeaderValue());
+        }
+        buffered.copyBodyToResponse();
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "server-timing")
+class ServerTimingProperties {
+    private boolean enabled = false;
+
+    /**
+     * Request header asking for timings
+     */
+    private String requestHeader = "X-Server-Timing";
+
+    /**
+     * Value the request header must carry, any value is accepted when unset
+     */
+    private String token;
+
+    /**
+     * Authority the principal must hold to receive timings, e.g. ADMIN; unset returns them to every caller
+     */
+    private String authority;
+}
@@ -0,0 +1,51 @@
+package com.kcdevdes.poppick.common.timing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Closes the security phase once the request reaches its handler, and checks the role gate
+ * while the principal is still in the SecurityContext
+ */
+@Component
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    private final String authority;
+
+    public ServerTimingInterceptor(ServerTimingProperties properties) {
+        this.authority = properties.getAuthority();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return true;
+        }
+
+        timing.endSecurity();
+        if (!timing.isGranted() && hasAuthority(SecurityContextHolder.getContext().getAuthentication())) {
+            timing.grant();
+        }
+        return true;
+    }
+
+    private boolean hasAuthority(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.kcdevdes.poppick.common.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed bucket bounds.
+ * Recording is a bucket search plus two adder increments, cheap enough for every pool checkout.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bounds (inclusive) of the buckets in milliseconds; a final bucket catches everything above
+     */
+    private static final double[] DEFAULT_BOUNDS_MILLIS =
+            {0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long[] boundsNanos;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BOUNDS_MILLIS);
+    }
+
+    /**
+     * @param boundsMillis ascending bucket upper bounds in milliseconds
+     */
+    public LatencyHistogram(double[] boundsMillis) {
+        this.boundsNanos = new long[boundsMillis.length];
+        for (int i = 0; i < boundsMillis.length; i++) {
+            boundsNanos[i] = (long) (boundsMillis[i] * 1_000_000);
+        }
+        this.buckets = new LongAdder[boundsMillis.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value, TimeUnit unit) {
+        long nanos = Math.max(0, unit.toNanos(value));
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get a snapshot of the histogram; concurrent records may be partially included
+     *
+     * @return Snapshot object
+     */
+    public Snapshot snapshot() {
+        double[] bounds = new double[boundsNanos.length];
+        long[] cumulative = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            cumulative[i] = running;
+            if (i < bounds.length) {
+                bounds[i] = boundsNanos[i] / 1_000_000.0;
+            }
+        }
+        return new Snapshot(count.sum(), sumNanos.sum() / 1_000_000.0, maxNanos.get() / 1_000_000.0,
+                bounds, cumulative);
+    }
+
+    /**
+     * @param count            number of recorded values
+     * @param sumMillis        sum of the recorded values
+     * @param maxMillis        largest recorded value
+     * @param boundsMillis     bucket upper bounds
+     * @param cumulativeCounts values at or below each bound, the last entry counts every value
+     */
+    public record Snapshot(long count, double sumMillis, double maxMillis, double[] boundsMillis,
+                           long[] cumulativeCounts) {
+
+        public double meanMillis() {
+            return count == 0 ? 0.0 : sumMillis / count;
+        }
+    }
+}
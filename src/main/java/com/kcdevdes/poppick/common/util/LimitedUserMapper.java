@@ -2,7 +2,13 @@ package com.kcdevdes.poppick.common.util;
 
 import com.kcdevdes.poppick.entity.User;
 import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import org.springframework.stereotype.Component;
 
+/**
+ * Maps users to the public profile response; stateless, so a single bean is shared by all callers
+ */
+@Component
 public class LimitedUserMapper implements Mapper<User, LimitedUserResponseDto> {
     @Override
     public LimitedUserResponseDto toDto(User entity) {
@@ -14,6 +20,10 @@ public class LimitedUserMapper implements Mapper<User, LimitedUserResponseDto> {
                 .build();
     }
 
+    public LimitedUserResponseDto toDto(UserSnapshot user) {
+        return new LimitedUserResponseDto(user.id(), user.email(), user.username(), user.profileImage());
+    }
+
     @Override
     public User toEntity(LimitedUserResponseDto dto) {
         if (dto == null) {
@@ -2,7 +2,13 @@ package com.kcdevdes.poppick.common.util;
 
 import com.kcdevdes.poppick.entity.User;
 import com.kcdevdes.poppick.dto.response.UserResponseDto;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import org.springframework.stereotype.Component;
 
+/**
+ * Maps users to the full profile response field by field, without reflection
+ */
+@Component
 public class UserMapper implements Mapper<User, UserResponseDto> {
     @Override
     public UserResponseDto toDto(User user) {
@@ -18,6 +24,18 @@ public class UserMapper implements Mapper<User, UserResponseDto> {
             .build();
     }
 
+    public UserResponseDto toDto(UserSnapshot user) {
+        return new UserResponseDto(
+            user.id(),
+            user.email(),
+            user.username(),
+            user.profileImage(),
+            user.oauthProvider(),
+            user.oauthId(),
+            user.createdAt(),
+            user.updatedAt());
+    }
+
     @Override
     public User toEntity(UserResponseDto dto) {
         if (dto == null) {
@@ -0,0 +1,60 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.common.health.ConnectionPoolMetrics;
+import com.kcdevdes.poppick.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Administrative operations, restricted to {@link com.kcdevdes.poppick.entity.Role#ADMIN} in SecurityConfig
+ */
+@RestController
+@RequestMapping("/v1/admin")
+public class AdminController {
+
+    private final UserImportService userImportService;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+
+    public AdminController(UserImportService userImportService, ConnectionPoolMetrics connectionPoolMetrics) {
+        this.userImportService = userImportService;
+        this.connectionPoolMetrics = connectionPoolMetrics;
+    }
+
+    /**
+     * Connection pool gauges and acquisition / usage time histograms
+     *
+     * @return ConnectionPoolMetrics.Stats object
+     */
+    @GetMapping("/metrics/pool")
+    public ResponseEntity<ConnectionPoolMetrics.Stats> getPoolMetrics() {
+        return ResponseEntity.ok(connectionPoolMetrics.getStats());
+    }
+
+    /**
+     * Bulk import users from NDJSON or CSV (header line with email, username and optional password).
+     * The result is streamed back as NDJSON while the import runs; the request thread is held until it ends.
+     *
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @PostMapping(value = "/users/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importUsers(request.getInputStream(), format, response.getOutputStream());
+    }
+}
@@ -8,7 +8,11 @@ import com.kcdevdes.poppick.dto.request.LoginRequestDto;
 import com.kcdevdes.poppick.dto.request.SignupRequestDto;
 import com.kcdevdes.poppick.service.AuthService;
 import com.kcdevdes.poppick.service.UserService;
+import com.kcdevdes.poppick.common.metrics.AuthOutcomeMetrics;
+import com.kcdevdes.poppick.common.metrics.AuthOutcomeMetrics.Operation;
+import com.kcdevdes.poppick.common.throttle.LoginThrottle;
 import com.kcdevdes.poppick.common.util.UserMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -24,12 +28,22 @@ import java.io.IOException;
 public class AuthController {
 
     private final UserService userService;
-    private final UserMapper userMapper = new UserMapper();
+    private final UserMapper userMapper;
     private final AuthService authService;
-
-    public AuthController(UserService userService, AuthService authService) {
+    private final LoginThrottle loginThrottle;
+    private final AuthOutcomeMetrics authOutcomeMetrics;
+
+    public AuthController(
+            UserService userService,
+            UserMapper userMapper,
+            AuthService authService,
+            LoginThrottle loginThrottle,
+            AuthOutcomeMetrics authOutcomeMetrics) {
         this.userService = userService;
+        this.userMapper = userMapper;
         this.authService = authService;
+        this.loginThrottle = loginThrottle;
+        this.authOutcomeMetrics = authOutcomeMetrics;
     }
 
     /// //////////////////////////////////////////////////////////
@@ -42,13 +56,19 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponseDto> login(@Valid @RequestBody LoginRequestDto requestDto) {
-        return ResponseEntity.ok(authService.issueJWT(requestDto));
+    public ResponseEntity<JwtResponseDto> login(@Valid @RequestBody LoginRequestDto requestDto, HttpServletRequest request) {
+        JwtResponseDto jwtResponse = authOutcomeMetrics.record(Operation.LOGIN, () -> {
+            // Reject throttled attempts before any database lookup or password comparison
+            loginThrottle.acquire(requestDto.getEmail(), request.getRemoteAddr());
+            return authService.issueJWT(requestDto);
+        });
+        return ResponseEntity.ok(jwtResponse);
     }
 
     @PostMapping("/refresh")
     public ResponseEntity<JwtResponseDto> refreshToken(@RequestBody RefreshTokenRequestDto requestDto) {
-        JwtResponseDto jwtResponse = authService.refreshToken(requestDto.getRefreshToken());
+        JwtResponseDto jwtResponse = authOutcomeMetrics.record(Operation.REFRESH,
+                () -> authService.refreshToken(requestDto.getRefreshToken()));
         return ResponseEntity.ok(jwtResponse);
     }
 
@@ -82,9 +102,11 @@ public class AuthController {
         dto.setOauthProvider(oauthProvider);
         dto.setOauthId(oauthId);
 
-        authService.registerOauthUser(dto);
-
-        return ResponseEntity.ok().body(authService.oauthLogin(email, oauthProvider, oauthId));
+        JwtResponseDto jwtResponse = authOutcomeMetrics.record(Operation.OAUTH_LOGIN, () -> {
+            authService.registerOauthUser(dto);
+            return authService.oauthLogin(email, oauthProvider, oauthId);
+        });
+        return ResponseEntity.ok().body(jwtResponse);
     }
 
     @GetMapping("/google/failure")
@@ -0,0 +1,47 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.common.health.DatabaseHealthChecker;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Load balancer probes. Neither endpoint touches the connection pool.
+ */
+@RestController
+@RequestMapping("/health")
+public class HealthController {
+
+    private static final Map<String, String> UP = Map.of("status", "UP");
+
+    private final DatabaseHealthChecker databaseHealthChecker;
+
+    public HealthController(DatabaseHealthChecker databaseHealthChecker) {
+        this.databaseHealthChecker = databaseHealthChecker;
+    }
+
+    /**
+     * The process is running and serving requests
+     */
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, String>> live() {
+        return ResponseEntity.ok(UP);
+    }
+
+    /**
+     * The node can serve traffic, based on the last background database check
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, String>> ready() {
+        DatabaseHealthChecker.Status status = databaseHealthChecker.getStatus();
+        if (!status.up()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("status", "DOWN", "database", status.error()));
+        }
+        return ResponseEntity.ok(UP);
+    }
+}
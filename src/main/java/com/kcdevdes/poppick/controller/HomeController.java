@@ -1,28 +1,28 @@
 package com.kcdevdes.poppick.controller;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Controller;
+import com.kcdevdes.poppick.common.health.DatabaseHealthChecker;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-
 
 @RestController
 public class HomeController {
 
-    @Autowired
-    private DataSource dataSource;
+    private final DatabaseHealthChecker databaseHealthChecker;
+
+    public HomeController(DatabaseHealthChecker databaseHealthChecker) {
+        this.databaseHealthChecker = databaseHealthChecker;
+    }
 
     @GetMapping("/")
     public String checkDatabaseConnection() {
-        try (Connection connection = dataSource.getConnection()) {
+        // 백그라운드 검사 결과를 사용, 요청마다 커넥션을 빌리지 않음
+        DatabaseHealthChecker.Status status = databaseHealthChecker.getStatus();
+        if (status.up()) {
             // DB 연결 확인 성공 시
             return "DB Connection OK";
-        } catch (Exception e) {
-            // DB 연결 실패 시
-            return "DB Connection Failed: " + e.getMessage();
         }
+        // DB 연결 실패 시
+        return "DB Connection Failed: " + status.error();
     }
 }
@@ -0,0 +1,48 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import com.kcdevdes.poppick.common.provider.SigningKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Publishes the token verification keys so other services can verify access tokens offline
+ */
+@RestController
+public class JwksController {
+
+    private final SigningKeyRing signingKeyRing;
+
+    public JwksController(SigningKeyRing signingKeyRing) {
+        this.signingKeyRing = signingKeyRing;
+    }
+
+    /**
+     * Get the JSON Web Key Set.
+     * The document is pre-serialized by the key ring; clients revalidate with the ETag.
+     *
+     * @param ifNoneMatch
+     * @return JWKS document, or 304 if the client copy is current
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        if (!signingKeyRing.isEnabled()) {
+            // HS256 keys are shared secrets and cannot be published
+            throw new DomainException(ErrorCode.NOT_FOUND);
+        }
+
+        String etag = signingKeyRing.getJwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(signingKeyRing.getJwksMaxAge()).cachePublic();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(etag).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).eTag(etag).body(signingKeyRing.getJwksJson());
+    }
+}
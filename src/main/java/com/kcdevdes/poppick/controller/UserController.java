@@ -1,89 +1,139 @@
 package com.kcdevdes.poppick.controller;
 
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import com.kcdevdes.poppick.common.util.LimitedUserMapper;
 import com.kcdevdes.poppick.dto.request.UpdateUserRequestDto;
 import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.dto.response.UserBatchResponseDto;
 import com.kcdevdes.poppick.dto.response.UserResponseDto;
-import com.kcdevdes.poppick.entity.User;
-import com.kcdevdes.poppick.common.provider.JwtProvider;
-import com.kcdevdes.poppick.common.util.LimitedUserMapper;
-import com.kcdevdes.poppick.common.util.UserMapper;
+import com.kcdevdes.poppick.dto.response.UserSearchResponseDto;
+import com.kcdevdes.poppick.common.security.AuthenticatedUser;
+import com.kcdevdes.poppick.common.security.CurrentUser;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import com.kcdevdes.poppick.repository.UserVersion;
 import com.kcdevdes.poppick.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/v1/users")
 public class UserController {
     private final UserService userService;
-    private final UserMapper userMapper = new UserMapper();
-    private final LimitedUserMapper limitedUserMapper = new LimitedUserMapper();
-    private final JwtProvider jwtProvider;
+    private final LimitedUserMapper limitedUserMapper;
 
-    public UserController(UserService userService, JwtProvider jwtProvider) {
+    public UserController(UserService userService, LimitedUserMapper limitedUserMapper) {
         this.userService = userService;
-        this.jwtProvider = jwtProvider;
+        this.limitedUserMapper = limitedUserMapper;
     }
 
-    @GetMapping("/me")
-    public ResponseEntity<UserResponseDto> getMe(@RequestHeader("Authorization") String token) {
-        // Extract email from token
-        String jwt = extractTokenFromHeader(token);
-        String email = jwtProvider.getEmailFromToken(jwt);
-
-        // Search for user
-        User user = userService.getUserByEmail(email);
+    @GetMapping
+    public ResponseEntity<UserSearchResponseDto> searchUsers(
+            @RequestParam(value = "q", required = false) String term,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        // Keyset pagination: follow nextCursor, there are no page numbers; a missing q is an invalid search term
+        return ResponseEntity.ok(userService.searchUsers(term, match, cursor, limit));
+    }
 
-        return ResponseEntity.ok(userMapper.toDto(user));
+    @GetMapping("/me")
+    public ResponseEntity<UserResponseDto> getMe(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Revalidation only needs the version, the profile is neither loaded nor serialized
+        if (ifNoneMatch != null) {
+            Optional<UserVersion> version = userService.getUserVersionByEmail(currentUser.email());
+            if (version.isPresent() && version.get().matchesAny(ifNoneMatch)) {
+                return versioned(HttpStatus.NOT_MODIFIED, version.get()).build();
+            }
+        }
+        UserResponseDto user = userService.getUserResponseByEmail(currentUser.email());
+        return versioned(HttpStatus.OK, new UserVersion(user.getId(), user.getUpdatedAt())).body(user);
     }
 
     @PutMapping("/me")
     public ResponseEntity<UserResponseDto> updateMyUser(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateUserRequestDto requestDto) {
-        // Extract email from token
-        String jwt = extractTokenFromHeader(token);
-        String email = jwtProvider.getEmailFromToken(jwt);
-
-        // Search for user
-        User user = userService.getUserByEmail(email);
-
-        // Update user
-        if (requestDto.getProfileImage() != null) {
-            user.setProfileImage(requestDto.getProfileImage());
-        }
-        if (requestDto.getUsername() != null) {
-            user.setUsername(requestDto.getUsername());
-        }
-        return ResponseEntity.ok(userMapper.toDto(userService.updateUserByEmail(user.getEmail(), user)));
+        // Update user, only the fields present in the request are changed; If-Match guards against lost updates
+        UserResponseDto user = userService.updateProfile(currentUser.email(), requestDto, expectedVersions(ifMatch));
+        return versioned(HttpStatus.OK, new UserVersion(user.getId(), user.getUpdatedAt())).body(user);
     }
 
     @DeleteMapping("/me")
-    public ResponseEntity<LimitedUserResponseDto> deleteMyUser(@RequestHeader("Authorization") String token) {
-        // Extract user email from token
-        String jwt = extractTokenFromHeader(token);
-        String email = jwtProvider.getEmailFromToken(jwt);
-
-        // Get User by email
-        User user = userService.getUserByEmail(email);
+    public ResponseEntity<LimitedUserResponseDto> deleteMyUser(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Delete user, the response carries the deleted profile
+        return ResponseEntity.ok(userService.deleteUserByEmail(currentUser.email(), expectedVersions(ifMatch)));
+    }
 
-        // Delete user
-        userService.deleteUserByEmail(email);
-        return ResponseEntity.ok(limitedUserMapper.toDto(user));
+    @GetMapping("/batch")
+    public ResponseEntity<UserBatchResponseDto> getUsers(@RequestParam(required = false) List<Integer> ids) {
+        // e.g. /v1/users/batch?ids=3,1,2 - one response for a whole leaderboard or chat list;
+        // missing or empty ids are an invalid batch size
+        return ResponseEntity.ok(userService.getLimitedUsersByIds(ids));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<LimitedUserResponseDto> getUser(@PathVariable Integer id) {
-        User user = userService.getUserById(id);
-        return ResponseEntity.ok(limitedUserMapper.toDto(user));
+    public ResponseEntity<LimitedUserResponseDto> getUser(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<UserVersion> version = userService.getUserVersionById(id);
+            if (version.isPresent() && version.get().matchesAny(ifNoneMatch)) {
+                return versioned(HttpStatus.NOT_MODIFIED, version.get()).build();
+            }
+        }
+        UserSnapshot user = userService.getUserSnapshotById(id);
+        return versioned(HttpStatus.OK, user.version()).body(limitedUserMapper.toDto(user));
     }
 
     /**
-     * Extract token from header
-     * @param token
-     * @return token - without "Bearer "
+     * Response carrying the user's ETag; clients must revalidate before reusing a stored copy
+     *
+     * @param status
+     * @param version
+     * @return response builder
      */
-    private String extractTokenFromHeader(String token) {
-        return token.replace("Bearer ", "");
+    private ResponseEntity.BodyBuilder versioned(HttpStatus status, UserVersion version) {
+        return ResponseEntity.status(status)
+                .eTag(version.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    /**
+     * Turn an If-Match header into the versions a conditional write accepts.
+     * If-Match uses strong comparison (RFC 9110), so weak tags never match and are skipped.
+     *
+     * @param ifMatch header value, may be null or "*"
+     * @return every strong ETag of ours in the header, null when the write is unconditional
+     * @throws DomainException 412 if the header holds no strong ETag of ours, it cannot match
+     */
+    private List<UserVersion> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        List<UserVersion> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.strip();
+            if (!candidate.startsWith("W/")) {
+                UserVersion.fromEtag(candidate).ifPresent(versions::add);
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new DomainException(ErrorCode.USER_MODIFIED);
+        }
+        return versions;
     }
 }
@@ -0,0 +1,18 @@
+package com.kcdevdes.poppick.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Profiles in the order of the requested ids; unknown ids have a null entry and are listed in "missing"
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class UserBatchResponseDto {
+    private List<LimitedUserResponseDto> users;
+    private List<Integer> missing;
+}
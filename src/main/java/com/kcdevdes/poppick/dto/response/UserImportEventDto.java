@@ -0,0 +1,26 @@
+package com.kcdevdes.poppick.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One line of the streamed bulk import result.
+ * "conflict" and "rejected" events carry the input line, "progress" and "done" events the running totals.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportEventDto {
+    private String type;
+    private Long line;
+    private String email;
+    private String reason;
+    private Long rows;
+    private Long inserted;
+    private Long conflicts;
+    private Long rejected;
+    private Long rowsPerSecond;
+}
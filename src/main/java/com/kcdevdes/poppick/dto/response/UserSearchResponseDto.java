@@ -0,0 +1,20 @@
+package com.kcdevdes.poppick.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a username search; pass nextCursor back to get the following page, absent on the last page
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSearchResponseDto {
+    private List<LimitedUserResponseDto> users;
+    private String nextCursor;
+}
@@ -0,0 +1,47 @@
+package com.kcdevdes.poppick.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asymmetric JWT signing key shared by every node.
+ * The private key is stored sealed (AES-GCM) with a key derived from the service secret.
+ */
+@Entity
+@Table(name = "signing_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SigningKey {
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    @Column(nullable = false, length = 10)
+    private String algorithm;
+
+    @Column(name = "public_key", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    @Column(name = "sealed_private_key", nullable = false, columnDefinition = "TEXT")
+    private String sealedPrivateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * First signing use; set after creation so verifiers can fetch the key before tokens appear
+     */
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+
+    /**
+     * The key is no longer published or accepted after this time
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,44 @@
+package com.kcdevdes.poppick.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked refresh token, or a whole revoked token family when {@code tokenId} is null
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "token_revocations_family_id_idx", columnList = "family_id"),
+        @Index(name = "token_revocations_revoked_at_idx", columnList = "revoked_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TokenRevocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", unique = true, length = 36)
+    private String tokenId;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public TokenRevocation(String tokenId, String familyId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.familyId = familyId;
+        this.revokedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+}
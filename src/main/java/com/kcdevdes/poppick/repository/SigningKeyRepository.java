@@ -0,0 +1,24 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.entity.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByAlgorithmAndExpiresAtAfterOrderByActivatesAtDesc(String algorithm, LocalDateTime now);
+
+    /**
+     * Wait for a transaction-scoped advisory lock, released on commit or rollback
+     *
+     * @param key lock id shared by all nodes
+     * @return always 1
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int lockForUpdate(@Param("key") long key);
+}
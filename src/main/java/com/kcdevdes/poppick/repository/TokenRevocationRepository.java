@@ -0,0 +1,41 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.entity.TokenRevocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<TokenRevocation> findByRevokedAtAfter(LocalDateTime revokedAt);
+
+    @Query("select count(r) > 0 from TokenRevocation r where r.tokenId = :tokenId or (r.familyId = :familyId and r.tokenId is null)")
+    boolean isRevoked(@Param("tokenId") String tokenId, @Param("familyId") String familyId);
+
+    /**
+     * Record a rotated refresh token unless its family is revoked, checked by the same statement
+     *
+     * @return 1 if the token was recorded, 0 if its family is revoked
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO token_revocations (token_id, family_id, revoked_at, expires_at) "
+            + "SELECT :tokenId, :familyId, :revokedAt, :expiresAt "
+            + "WHERE NOT EXISTS (SELECT 1 FROM token_revocations WHERE family_id = :familyId AND token_id IS NULL)")
+    int insertUnlessFamilyRevoked(@Param("tokenId") String tokenId, @Param("familyId") String familyId,
+                                  @Param("revokedAt") LocalDateTime revokedAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
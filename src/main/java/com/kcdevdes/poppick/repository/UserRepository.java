@@ -2,11 +2,41 @@ package com.kcdevdes.poppick.repository;
 
 import com.kcdevdes.poppick.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
+    /**
+     * Emails are matched case-insensitively through the lower(email) unique index
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT new com.kcdevdes.poppick.repository.UserSnapshot("
+            + "u.id, u.email, u.username, u.role, u.profileImage, u.oauthProvider, u.oauthId, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserSnapshot> findSnapshotById(Integer id);
+
+    @Query("SELECT new com.kcdevdes.poppick.repository.UserSnapshot("
+            + "u.id, u.email, u.username, u.role, u.profileImage, u.oauthProvider, u.oauthId, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional<UserSnapshot> findSnapshotByEmail(String email);
+
+    @Query("SELECT new com.kcdevdes.poppick.repository.UserSnapshot("
+            + "u.id, u.email, u.username, u.role, u.profileImage, u.oauthProvider, u.oauthId, u.createdAt, u.updatedAt) "
+            + "FROM User u WHERE u.oauthProvider = :oauthProvider AND u.oauthId = :oauthId")
+    Optional<UserSnapshot> findSnapshotByOauth(String oauthProvider, String oauthId);
+
+    /**
+     * Version lookups for conditional GETs, no need to load the whole row
+     */
+    @Query("SELECT new com.kcdevdes.poppick.repository.UserVersion(u.id, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<UserVersion> findVersionById(Integer id);
+
+    @Query("SELECT new com.kcdevdes.poppick.repository.UserVersion(u.id, u.updatedAt) "
+            + "FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional<UserVersion> findVersionByEmail(String email);
 }
@@ -0,0 +1,76 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.entity.Role;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single-statement user writes and searches implemented with plain SQL, see {@link UserRepositoryImpl}
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Update the profile fields of a user in one statement.
+     * Null fields are left unchanged.
+     *
+     * @param email
+     * @param username
+     * @param profileImage
+     * @param expectedVersions only update if the row still has one of these versions, null to skip the check
+     * @return the updated row, empty if no row matched (missing user or version mismatch)
+     */
+    Optional<UserSnapshot> updateProfile(String email, String username, String profileImage,
+                                         List<UserVersion> expectedVersions);
+
+    /**
+     * Delete a user in one statement
+     *
+     * @param email
+     * @param expectedVersions only delete if the row still has one of these versions, null to skip the check
+     * @return the deleted row, empty if no row matched (missing user or version mismatch)
+     */
+    Optional<UserSnapshot> deleteByEmailReturning(String email, List<UserVersion> expectedVersions);
+
+    /**
+     * Insert a user unless the email is already taken, atomically and in one statement
+     *
+     * @param email
+     * @param username
+     * @param password encoded password
+     * @param role
+     * @return the created row, empty if a user with this email already exists
+     */
+    Optional<UserSnapshot> insertIfAbsent(String email, String username, String password, Role role);
+
+    /**
+     * Replace a password hash in one statement, unless the password was changed in the meantime
+     *
+     * @param id
+     * @param currentPassword encoded password being replaced
+     * @param newPassword     encoded password
+     * @return true if the row was updated
+     */
+    boolean updatePassword(Integer id, String currentPassword, String newPassword);
+
+    /**
+     * Search users by username, case-insensitively, ordered by (lower(username), id).
+     * Seeks past the previous page instead of using OFFSET, so deep pages cost the same as the first.
+     *
+     * @param term          literal text to match, LIKE wildcards are escaped
+     * @param prefix        true to match the start of the username, false to match anywhere
+     * @param afterUsername username of the last row of the previous page, null for the first page
+     * @param afterId       id of the last row of the previous page, null for the first page
+     * @param limit         maximum number of rows
+     * @return matching users in keyset order
+     */
+    List<UserSnapshot> searchByUsername(String term, boolean prefix, String afterUsername, Integer afterId, int limit);
+
+    /**
+     * Load several users with one {@code WHERE id = ANY(?)} statement
+     *
+     * @param ids
+     * @return found users, in no particular order
+     */
+    List<UserSnapshot> findSnapshotsByIds(List<Integer> ids);
+}
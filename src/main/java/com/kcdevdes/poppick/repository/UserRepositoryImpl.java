@@ -0,0 +1,149 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.entity.Role;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * PostgreSQL implementation of {@link UserRepositoryCustom}.
+ * Runs on the connection of the surrounding JPA transaction; callers must not hold a managed
+ * {@link com.kcdevdes.poppick.entity.User} for the same row, it would not see these changes.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String RETURNING =
+            " RETURNING id, email, username, role, profile_image, oauth_provider, oauth_id, created_at, updated_at";
+
+    private static final String UPDATE_PROFILE = "UPDATE users SET "
+            + "username = COALESCE(?, username), "
+            + "profile_image = COALESCE(?, profile_image), "
+            + "updated_at = ? "
+            + "WHERE lower(email) = lower(?)";
+
+    private static final String DELETE = "DELETE FROM users WHERE lower(email) = lower(?)";
+
+    // No conflict target: any unique violation (i.e. the email) means the user already exists
+    private static final String INSERT_IF_ABSENT = "INSERT INTO users "
+            + "(email, username, password, role, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT DO NOTHING";
+
+    private static final String UPDATE_PASSWORD =
+            "UPDATE users SET password = ?, updated_at = ? WHERE id = ? AND password = ?";
+
+    // Followed by one "(?, ?)" per accepted version, see versionCheck
+    private static final String VERSION_CHECK = " AND (id, updated_at) IN (";
+
+    private static final String FIND_BY_IDS = "SELECT id, email, username, role, profile_image, oauth_provider, "
+            + "oauth_id, created_at, updated_at FROM users WHERE id = ANY(?)";
+
+    // Matches the users_username_search_idx / users_username_trgm_idx expressions (V3 migration)
+    private static final String SEARCH = "SELECT id, email, username, role, profile_image, oauth_provider, oauth_id, "
+            + "created_at, updated_at FROM users WHERE ";
+    private static final String PREFIX_MATCH = "lower(username) COLLATE \"C\" LIKE lower(?) ESCAPE '\\'";
+    private static final String SUBSTRING_MATCH = "lower(username) LIKE lower(?) ESCAPE '\\'";
+    private static final String SEEK = " AND (lower(username) COLLATE \"C\", id) > (lower(?), ?)";
+    private static final String SEARCH_ORDER = " ORDER BY lower(username) COLLATE \"C\", id LIMIT ?";
+
+    private static final RowMapper<UserSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new UserSnapshot(
+            rs.getInt("id"),
+            rs.getString("email"),
+            rs.getString("username"),
+            Role.valueOf(rs.getString("role")),
+            rs.getString("profile_image"),
+            rs.getString("oauth_provider"),
+            rs.getString("oauth_id"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<UserSnapshot> updateProfile(String email, String username, String profileImage,
+                                                List<UserVersion> expectedVersions) {
+        // Same precision as the column, so the returned version compares equal on the next check
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (expectedVersions == null) {
+            return first(UPDATE_PROFILE + RETURNING, username, profileImage, now, email);
+        }
+        return first(UPDATE_PROFILE + versionCheck(expectedVersions) + RETURNING,
+                withVersions(expectedVersions, username, profileImage, now, email));
+    }
+
+    @Override
+    public Optional<UserSnapshot> deleteByEmailReturning(String email, List<UserVersion> expectedVersions) {
+        if (expectedVersions == null) {
+            return first(DELETE + RETURNING, email);
+        }
+        return first(DELETE + versionCheck(expectedVersions) + RETURNING, withVersions(expectedVersions, email));
+    }
+
+    @Override
+    public Optional<UserSnapshot> insertIfAbsent(String email, String username, String password, Role role) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return first(INSERT_IF_ABSENT + RETURNING, email, username, password, role.name(), now, now);
+    }
+
+    @Override
+    public boolean updatePassword(Integer id, String currentPassword, String newPassword) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return jdbcTemplate.update(UPDATE_PASSWORD, newPassword, now, id, currentPassword) == 1;
+    }
+
+    @Override
+    public List<UserSnapshot> searchByUsername(String term, boolean prefix, String afterUsername, Integer afterId,
+                                               int limit) {
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String pattern = prefix ? escaped + "%" : "%" + escaped + "%";
+        String match = prefix ? PREFIX_MATCH : SUBSTRING_MATCH;
+        if (afterUsername == null || afterId == null) {
+            return jdbcTemplate.query(SEARCH + match + SEARCH_ORDER, SNAPSHOT_MAPPER, pattern, limit);
+        }
+        return jdbcTemplate.query(SEARCH + match + SEEK + SEARCH_ORDER, SNAPSHOT_MAPPER,
+                pattern, afterUsername, afterId, limit);
+    }
+
+    @Override
+    public List<UserSnapshot> findSnapshotsByIds(List<Integer> ids) {
+        // One array parameter: a single statement and plan whatever the batch size
+        return jdbcTemplate.query(FIND_BY_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                SNAPSHOT_MAPPER);
+    }
+
+    /**
+     * Condition matching the row against any of the versions, id included
+     *
+     * @param versions at least one version
+     * @return SQL fragment with two parameters per version
+     */
+    private static String versionCheck(List<UserVersion> versions) {
+        StringBuilder sql = new StringBuilder(VERSION_CHECK);
+        for (int i = 0; i < versions.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        return sql.append(')').toString();
+    }
+
+    private static Object[] withVersions(List<UserVersion> versions, Object... args) {
+        Object[] all = Arrays.copyOf(args, args.length + 2 * versions.size());
+        for (int i = 0; i < versions.size(); i++) {
+            all[args.length + 2 * i] = versions.get(i).id();
+            all[args.length + 2 * i + 1] = versions.get(i).updatedAt();
+        }
+        return all;
+    }
+
+    private Optional<UserSnapshot> first(String sql, Object... args) {
+        return jdbcTemplate.query(sql, SNAPSHOT_MAPPER, args).stream().findFirst();
+    }
+}
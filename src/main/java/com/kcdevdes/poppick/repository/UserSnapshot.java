@@ -0,0 +1,41 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.entity.Role;
+import com.kcdevdes.poppick.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of the users table, read without hydrating a managed {@link User}.
+ * Carries every column the read paths need except the password hash.
+ */
+public record UserSnapshot(Integer id, String email, String username, Role role, String profileImage,
+                           String oauthProvider, String oauthId,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    /**
+     * Build a detached User, e.g. for code that still works with entities
+     *
+     * @return detached User without a password
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setRole(role);
+        user.setProfileImage(profileImage);
+        user.setOauthProvider(oauthProvider);
+        user.setOauthId(oauthId);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+
+    /**
+     * @return version of this row, see {@link UserVersion#etag()}
+     */
+    public UserVersion version() {
+        return new UserVersion(id, updatedAt);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kcdevdes.poppick.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Identity and modification time of a user row, the basis of the user resources' strong ETags.
+ * The ETag encodes updatedAt losslessly (microseconds, the column precision), so an If-Match value can be
+ * turned back into the expected version of a conditional write.
+ */
+public record UserVersion(Integer id, LocalDateTime updatedAt) {
+
+    /**
+     * @return strong ETag, e.g. "42-1729150000123456"
+     */
+    public String etag() {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+        return "\"" + id + "-" + micros + "\"";
+    }
+
+    /**
+     * Check an If-None-Match header against this version, using weak comparison as RFC 9110 requires
+     *
+     * @param ifNoneMatch header value, may list several tags or be "*"
+     * @return true if any listed tag matches
+     */
+    public boolean matchesAny(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag();
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.strip();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse a strong ETag produced by {@link #etag()}
+     *
+     * @param etag
+     * @return the version, empty if the value is weak or not one of ours
+     */
+    public static Optional<UserVersion> fromEtag(String etag) {
+        String value = etag.strip();
+        if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return Optional.empty();
+        }
+        value = value.substring(1, value.length() - 1);
+        int separator = value.indexOf('-');
+        try {
+            Integer id = Integer.valueOf(value.substring(0, separator));
+            long micros = Long.parseLong(value.substring(separator + 1));
+            LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            return Optional.of(new UserVersion(id, updatedAt));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.kcdevdes.poppick.service;
 
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.datasource.ReplicaRouting;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
 import com.kcdevdes.poppick.dto.request.LoginRequestDto;
 import com.kcdevdes.poppick.dto.request.OauthSignupRequestDto;
 import com.kcdevdes.poppick.dto.request.SignupRequestDto;
@@ -7,16 +10,20 @@ import com.kcdevdes.poppick.dto.response.JwtResponseDto;
 import com.kcdevdes.poppick.entity.Role;
 import com.kcdevdes.poppick.entity.User;
 import com.kcdevdes.poppick.repository.UserRepository;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import com.kcdevdes.poppick.common.crypto.PasswordHasher;
 import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.provider.token.TokenClaims;
 import jakarta.transaction.Transactional;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @Service
@@ -25,18 +32,21 @@ public class AuthService {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtProvider jwtProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthService(
             UserService userService,
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
-            JwtProvider jwtProvider) {
+            PasswordHasher passwordHasher,
+            JwtProvider jwtProvider,
+            TokenRevocationService tokenRevocationService) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtProvider = jwtProvider;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /////////////////////////////////////////////////////////////
@@ -44,48 +54,54 @@ public class AuthService {
     /////////////////////////////////////////////////////////////
 
     /**
-     * Register a new user
+     * Register a new user with a single insert-on-conflict statement.
+     * Runs without a transaction so no connection is held while the password is hashed.
      *
      * @param dto
-     * @return the saved entity
-     * @throws ResponseStatusException if email already exists
+     * @return the saved user
+     * @throws DomainException if email already exists
      */
-    public User registerUser(SignupRequestDto dto) {
-        // Check if email already exists
-        if (userRepository.findByEmail(dto.getEmail()).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email Already Exists");
-        }
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public UserSnapshot registerUser(SignupRequestDto dto) {
+        String encodedPassword = passwordHasher.encode(dto.getPassword());
 
-        // Create user object
-        User user = new User();
-        user.setEmail(dto.getEmail());
-        user.setPassword(passwordEncoder.encode(dto.getPassword()));
-        user.setUsername(dto.getUsername());
-        user.setRole(Role.USER);
+        // Concurrent signups with the same email cannot both insert, the loser gets the usual 400
+        UserSnapshot user = userRepository.insertIfAbsent(dto.getEmail(), dto.getUsername(), encodedPassword, Role.USER)
+                .orElseThrow(() -> new DomainException(ErrorCode.EMAIL_ALREADY_EXISTS));
 
-        return userRepository.save(user);
+        // Keep the first reads of the new user off the replicas, which may not have the row yet
+        userService.evictUser(user.id(), user.email());
+        return user;
     }
 
     /**
-     * issue JWT for a user - same as login
+     * issue JWT for a user - same as login.
+     * Runs without a transaction: the user is read in the repository's own read-only transaction,
+     * so the connection is back in the pool before the password is verified.
      *
      * @param dto
      * @return JWT token
-     * @throws ResponseStatusException when user not found / password incorrect / user signed up with OAuth
+     * @throws DomainException when user not found / password incorrect / user signed up with OAuth
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public JwtResponseDto issueJWT(LoginRequestDto dto) {
-        // Retrieve user info from database
-        User user = userRepository.findByEmail(dto.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Wrong Credentials"));
+        // Retrieve user info from the primary, a replica may not have a new user or password yet
+        User user = ReplicaRouting.onPrimary(() -> userRepository.findByEmail(dto.getEmail()))
+                .orElseThrow(() -> new DomainException(ErrorCode.WRONG_CREDENTIALS));
 
         // Check if user signed up as a standard auth user
         if (isOAuthUser(user)) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "OAuth Login Required");
+            throw new DomainException(ErrorCode.OAUTH_LOGIN_REQUIRED);
         }
 
         // Check if password is correct
-        if (!passwordEncoder.matches(dto.getPassword(), user.getPassword())) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Wrong Credentials");
+        if (!passwordHasher.matches(dto.getPassword(), user.getPassword())) {
+            throw new DomainException(ErrorCode.WRONG_CREDENTIALS);
+        }
+
+        // Migrate hashes created with an older cost
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehashPassword(user, dto.getPassword());
         }
 
         Authentication authentication = new UsernamePasswordAuthenticationToken(
@@ -95,33 +111,53 @@ public class AuthService {
         );
 
         // Create JWT token and return it
-        return jwtProvider.generateToken(authentication, false);
+        return jwtProvider.generateToken(authentication);
     }
 
     /**
-     * Validate and refresh access token
+     * Validate and rotate a refresh token.
+     * Runs without a transaction: the revocations commit in their own REQUIRES_NEW transactions, which must not
+     * wait for a second pool connection while this call holds one.
      *
      * @param refreshToken Refresh token from request
-     * @return New JWT response with access token
+     * @return New JWT response with access token and the next refresh token of the same family
+     * @throws DomainException when the token is invalid, revoked or reused
      */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public JwtResponseDto refreshToken(String refreshToken) {
         // Validate refresh token
-        if (!jwtProvider.validateToken(refreshToken)) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid Refresh Token");
+        TokenClaims claims = jwtProvider.parseRefreshToken(refreshToken);
+
+        // A rotated token presented again has leaked, kill every token of its family
+        if (tokenRevocationService.isRevoked(claims.tokenId(), claims.familyId())) {
+            tokenRevocationService.revokeFamily(claims.familyId(), familyExpiration());
+            throw new DomainException(ErrorCode.INVALID_REFRESH_TOKEN);
         }
 
-        // Extract user information from refresh token
-        String email = jwtProvider.getEmailFromToken(refreshToken);
+        // Rotate: the presented token can never be used again
+        boolean rotated;
+        try {
+            rotated = tokenRevocationService.revokeToken(
+                    claims.tokenId(), claims.familyId(), toLocalDateTime(claims.expiresAt()));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race against another use of the same token, treat it as reuse
+            tokenRevocationService.revokeFamily(claims.familyId(), familyExpiration());
+            throw new DomainException(ErrorCode.INVALID_REFRESH_TOKEN);
+        }
+        if (!rotated) {
+            // The family was killed, possibly on another node that this one has not polled yet
+            throw new DomainException(ErrorCode.INVALID_REFRESH_TOKEN);
+        }
 
-        // Find user in the database
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User Not Found"));
+        // Find user, usually in the user cache
+        UserSnapshot user = userService.findUserByEmail(claims.subject())
+                .orElseThrow(() -> new DomainException(ErrorCode.UNKNOWN_USER));
 
-        // Generate a new access token
+        // Generate a new access token and the next refresh token
         Authentication authentication = new UsernamePasswordAuthenticationToken(
-                user.getEmail(), null, List.of(new SimpleGrantedAuthority(user.getRole().getKey()))
+                user.email(), null, List.of(new SimpleGrantedAuthority(user.role().getKey()))
         );
-        return jwtProvider.generateToken(authentication, true);
+        return jwtProvider.generateToken(authentication, claims.familyId());
     }
 
     /// //////////////////////////////////////////////////////////
@@ -133,12 +169,16 @@ public class AuthService {
      *
      * @param dto
      * @return the saved entity
-     * @throws ResponseStatusException if email already exists / OAuth credentials mismatch
+     * @throws DomainException if email already exists / OAuth credentials mismatch
      */
     public User registerOauthUser(OauthSignupRequestDto dto) {
         // Check if email already exists
         User user = userService.getUserByOauth(dto.getEmail(), dto.getOauthProvider(), dto.getOauthId());
         if (user != null) {
+            // The lookup may be a cached snapshot, update the managed entity instead
+            user = userRepository.findById(user.getId())
+                    .orElseThrow(() -> new DomainException(ErrorCode.USER_NOT_FOUND));
+
             // Update existing user to OAuth details
             user.setOauthProvider(dto.getOauthProvider());
             user.setOauthId(dto.getOauthId());
@@ -155,7 +195,9 @@ public class AuthService {
             user.setProfileImage(dto.getProfileImage());
 
         }
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        userService.evictUser(user.getId(), user.getEmail());
+        return user;
     }
 
 
@@ -166,23 +208,62 @@ public class AuthService {
      * @param provider OAuth provider
      * @param oauthId  OAuth ID
      * @return JWT token
-     * @throws ResponseStatusException when user not found, mismatched OAuth details, or user signed up with standard auth
+     * @throws DomainException when user not found, mismatched OAuth details, or user signed up with standard auth
      */
     public JwtResponseDto oauthLogin(String email, String provider, String oauthId) {
-        // Find user by email
-        User user = userService.getUserByOauth(email, provider, oauthId);
+        // Find user by provider identity (indexed)
+        UserSnapshot user = userService.findUserByOauth(provider, oauthId).orElse(null);
+        if (user == null) {
+            // Report standard accounts and mismatched OAuth details the same way as before
+            userService.getUserByOauth(email, provider, oauthId);
+            throw new DomainException(ErrorCode.UNKNOWN_USER);
+        }
 
         // Create authentication object
         Authentication authentication = new UsernamePasswordAuthenticationToken(
-                email,
+                user.email(),
                 null,
-                List.of(new SimpleGrantedAuthority(user.getRole().getKey()))
+                List.of(new SimpleGrantedAuthority(user.role().getKey()))
         );
 
         // Generate JWT token
-        return jwtProvider.generateToken(authentication, false);
+        return jwtProvider.generateToken(authentication);
+    }
+
+
+    /**
+     * Re-hash a verified password with the current strength, in one conditional update.
+     * Skipped when the hashing executor is saturated or the password changed meanwhile, the next login will try again.
+     *
+     * @param user
+     * @param rawPassword
+     */
+    private void rehashPassword(User user, String rawPassword) {
+        String encodedPassword;
+        try {
+            encodedPassword = passwordHasher.encode(rawPassword);
+        } catch (DomainException e) {
+            // Login already succeeded, the migration is best effort
+            return;
+        }
+        // The update moves updated_at, cached versions (ETags) must not outlive it
+        if (userRepository.updatePassword(user.getId(), user.getPassword(), encodedPassword)) {
+            userService.evictUser(user.getId(), user.getEmail());
+        }
     }
 
+    /**
+     * Latest expiration any token of a family issued up to now can have
+     *
+     * @return expiration time
+     */
+    private LocalDateTime familyExpiration() {
+        return LocalDateTime.now().plus(jwtProvider.getRefreshTokenExpiration());
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
 
     /**
      * Check if a user is an OAuth user
@@ -0,0 +1,290 @@
+package com.kcdevdes.poppick.service;
+
+import com.kcdevdes.poppick.common.util.BloomFilter;
+import com.kcdevdes.poppick.entity.TokenRevocation;
+import com.kcdevdes.poppick.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks revoked refresh tokens and token families.
+ * <p>
+ * The table is the source of truth. Checks are answered in memory by a Bloom filter holding every
+ * revocation plus an exact set of the most recent ones; the database is only consulted when the filter
+ * reports a possible match that the exact set cannot confirm (an older revocation or a false positive),
+ * or while the initial load has not finished yet.
+ * <p>
+ * Other nodes learn about new revocations at their next poll, so {@link #isRevoked} may miss a revocation made
+ * elsewhere for up to jwt.revocation.poll-interval-ms. Rotation does not depend on it for families:
+ * {@link #revokeToken} checks the family in the database in the same statement that records the token, so a
+ * family killed on one node is refused by every node immediately. The filter is sized on every load for twice the rows
+ * present (at least jwt.revocation.expected-revocations), and its fill ratio is exported as a gauge.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final String TOKEN_PREFIX = "t:";
+    private static final String FAMILY_PREFIX = "f:";
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenRevocationProperties properties;
+
+    private volatile BloomFilter filter;
+    private final Map<String, Boolean> recent = new ConcurrentHashMap<>();
+    private final Queue<String> recentOrder = new ConcurrentLinkedQueue<>();
+    private volatile boolean loaded;
+    private volatile LocalDateTime lastPoll = LocalDateTime.MIN;
+
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+
+    // Rebuilds read the whole table, they run here rather than on the shared @Scheduled pool
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenRevocationService(
+            TokenRevocationRepository tokenRevocationRepository,
+            TokenRevocationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.properties = properties;
+        this.filter = newFilter(0);
+
+        Gauge.builder("poppick.revocation.filter.fill", this, service -> service.filter.fillRatio())
+                .description("Share of set bits in the revocation Bloom filter, false positives climb steeply above 0.5")
+                .register(meterRegistry);
+        Gauge.builder("poppick.revocation.filter.capacity", this, service -> service.filter.expectedInsertions())
+                .description("Revocations the current Bloom filter was sized for")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check if a refresh token or its family has been revoked
+     *
+     * @param tokenId
+     * @param familyId
+     * @return true if revoked
+     */
+    public boolean isRevoked(String tokenId, String familyId) {
+        if (!loaded) {
+            databaseChecks.increment();
+            return tokenRevocationRepository.isRevoked(tokenId, familyId);
+        }
+
+        String tokenKey = TOKEN_PREFIX + tokenId;
+        String familyKey = FAMILY_PREFIX + familyId;
+        BloomFilter current = filter;
+        if (!current.mightContain(tokenKey) && !current.mightContain(familyKey)) {
+            filterNegatives.increment();
+            return false;
+        }
+
+        if (recent.containsKey(tokenKey) || recent.containsKey(familyKey)) {
+            exactHits.increment();
+            return true;
+        }
+
+        databaseChecks.increment();
+        return tokenRevocationRepository.isRevoked(tokenId, familyId);
+    }
+
+    /**
+     * Revoke a single refresh token (rotation), unless its family has been revoked.
+     * The token id is unique in the table, so of two concurrent rotations of the same token only one succeeds.
+     * The family is checked in the database, not in memory, so a revocation made on another node counts
+     * before this node has polled it.
+     *
+     * @param tokenId
+     * @param familyId
+     * @param expiresAt token expiration, after which the row can be purged
+     * @return true if the token was rotated, false if its family is revoked
+     * @throws DataIntegrityViolationException if the token was already revoked
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public boolean revokeToken(String tokenId, String familyId, LocalDateTime expiresAt) {
+        if (tokenRevocationRepository.insertUnlessFamilyRevoked(tokenId, familyId, LocalDateTime.now(), expiresAt) == 0) {
+            remember(FAMILY_PREFIX + familyId);
+            return false;
+        }
+        remember(TOKEN_PREFIX + tokenId);
+        return true;
+    }
+
+    /**
+     * Revoke every token of a family, e.g. when a rotated refresh token is presented again
+     *
+     * @param familyId
+     * @param expiresAt latest possible expiration of a token in the family
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void revokeFamily(String familyId, LocalDateTime expiresAt) {
+        tokenRevocationRepository.saveAndFlush(new TokenRevocation(null, familyId, expiresAt));
+        remember(FAMILY_PREFIX + familyId);
+    }
+
+    /**
+     * Load every revocation into memory on startup, page by page.
+     * The filter is sized from the current row count, leaving room for as many new revocations until the next
+     * rebuild; a filter filled past its size turns more and more checks into database round trips.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        BloomFilter rebuilt = newFilter(tokenRevocationRepository.count());
+        long lastId = 0L;
+        long count = 0;
+        while (true) {
+            List<TokenRevocation> page = tokenRevocationRepository.findByIdGreaterThanOrderByIdAsc(
+                    lastId, PageRequest.of(0, properties.getLoadPageSize()));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (TokenRevocation revocation : page) {
+                rebuilt.put(keyOf(revocation));
+                lastId = revocation.getId();
+            }
+            count += page.size();
+        }
+
+        filter = rebuilt;
+        lastPoll = startedAt.minusSeconds(properties.getPollOverlapSeconds());
+        loaded = true;
+        // Pick up whatever was committed while the pages were being read
+        poll();
+        log.info("Loaded {} token revocations ({} KB filter sized for {}, {}% full)", count,
+                rebuilt.sizeInBytes() / 1024, rebuilt.expectedInsertions(), Math.round(rebuilt.fillRatio() * 100));
+    }
+
+    /**
+     * Apply revocations written by other nodes since the last poll.
+     * Polls overlap a little so rows committed out of order are not missed; re-adding a key is harmless.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtAfter(lastPoll)) {
+            remember(keyOf(revocation));
+        }
+        lastPoll = startedAt.minusSeconds(properties.getPollOverlapSeconds());
+    }
+
+    /**
+     * Delete expired revocations and rebuild the filter without them in the background, Bloom filters cannot
+     * remove keys. Checks keep using the current filter until the rebuilt one replaces it.
+     */
+    @Scheduled(cron = "${jwt.revocation.purge-cron:0 30 4 * * *}")
+    public void purgeExpired() {
+        int deleted = tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException e) {
+                    log.warn("Could not rebuild the revocation filter, keeping the current one", e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Get a snapshot of the revocation check counters
+     *
+     * @return Stats object
+     */
+    public Stats getStats() {
+        BloomFilter current = filter;
+        return new Stats(filterNegatives.sum(), exactHits.sum(), databaseChecks.sum(), recent.size(),
+                current.expectedInsertions(), current.fillRatio());
+    }
+
+    private void remember(String key) {
+        filter.put(key);
+        if (recent.putIfAbsent(key, Boolean.TRUE) == null) {
+            recentOrder.add(key);
+            while (recent.size() > properties.getMaxRecent()) {
+                String oldest = recentOrder.poll();
+                if (oldest == null) {
+                    break;
+                }
+                recent.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * Create a filter with room for the existing revocations and as many again
+     *
+     * @param rows revocations currently in the table
+     * @return empty filter
+     */
+    private BloomFilter newFilter(long rows) {
+        long expected = Math.max(properties.getExpectedRevocations(), 2 * rows);
+        return new BloomFilter(expected, properties.getFalsePositiveProbability());
+    }
+
+    private static String keyOf(TokenRevocation revocation) {
+        return revocation.getTokenId() != null
+                ? TOKEN_PREFIX + revocation.getTokenId()
+                : FAMILY_PREFIX + revocation.getFamilyId();
+    }
+
+    public record Stats(long filterNegatives, long exactHits, long databaseChecks, int recentSize,
+                        long filterCapacity, double filterFillRatio) {
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "jwt.revocation")
+class TokenRevocationProperties {
+    /**
+     * Minimum Bloom filter capacity; each load sizes the filter for twice the revocations in the table
+     */
+    private long expectedRevocations = 1_000_000;
+    private double falsePositiveProbability = 0.001;
+
+    /**
+     * Number of most recent revocations kept in the exact set
+     */
+    private int maxRecent = 100_000;
+
+    private int loadPageSize = 5_000;
+    private long pollOverlapSeconds = 30;
+}
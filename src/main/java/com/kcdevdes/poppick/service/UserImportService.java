@@ -0,0 +1,413 @@
+package com.kcdevdes.poppick.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcdevdes.poppick.common.crypto.PasswordHasher;
+import com.kcdevdes.poppick.dto.response.UserImportEventDto;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Bulk user import through the PostgreSQL COPY protocol.
+ * <p>
+ * Input rows are read as a stream and handled in fixed-size batches, so memory stays bounded whatever
+ * the input size. Each batch is hashed through the {@link PasswordHasher} bulk budget, then copied into a
+ * transaction-local staging table and merged into users with a single INSERT ... SELECT ... ON CONFLICT DO NOTHING.
+ * Rows that were not inserted (email already taken, or repeated within the input) are reported as conflicts.
+ * Every batch is committed on its own, so an interrupted import keeps the batches that were already merged.
+ * <p>
+ * A connection is only borrowed for the copy and merge of a hashed batch, not while reading the input,
+ * hashing or writing events to a possibly slow client.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE IF NOT EXISTS user_import ("
+            + "line BIGINT NOT NULL, email VARCHAR(50) NOT NULL, username VARCHAR(30) NOT NULL, password VARCHAR(255)"
+            + ") ON COMMIT DROP";
+
+    private static final String COPY_STAGING =
+            "COPY user_import (line, email, username, password) FROM STDIN WITH (FORMAT csv)";
+
+    // The first occurrence of an email in the input wins (emails are unique regardless of case), later ones
+    // and taken emails come back as conflicts
+    private static final String MERGE = "WITH staged AS ("
+            + "SELECT line, email, username, password, "
+            + "row_number() OVER (PARTITION BY lower(email) ORDER BY line) AS occurrence FROM user_import), "
+            + "inserted AS ("
+            + "INSERT INTO users (email, username, password, role, created_at, updated_at) "
+            + "SELECT email, username, password, 'USER', ?, ? FROM staged WHERE occurrence = 1 "
+            + "ON CONFLICT DO NOTHING RETURNING email) "
+            + "SELECT s.line, s.email FROM staged s "
+            + "LEFT JOIN inserted i ON s.occurrence = 1 AND i.email = s.email "
+            + "WHERE i.email IS NULL "
+            + "ORDER BY s.line";
+
+    private final DataSource dataSource;
+    private final PasswordHasher passwordHasher;
+    private final ObjectMapper objectMapper;
+    private final UserImportProperties properties;
+
+    public UserImportService(
+            DataSource dataSource,
+            PasswordHasher passwordHasher,
+            ObjectMapper objectMapper,
+            UserImportProperties properties) {
+        this.dataSource = dataSource;
+        this.passwordHasher = passwordHasher;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Import users and stream the result as NDJSON events
+     *
+     * @param input  NDJSON objects or CSV with a header line; fields email, username and optional password
+     * @param format input format
+     * @param output receives conflict/rejected events as they happen, a progress event per batch and a final "done" event
+     * @throws IOException if the output cannot be written
+     */
+    public void importUsers(InputStream input, Format format, OutputStream output) throws IOException {
+        Progress progress = new Progress(System.nanoTime());
+
+        try {
+            Iterator<ImportRow> rows = format == Format.CSV ? csvRows(input) : ndjsonRows(input);
+            List<ImportRow> batch = new ArrayList<>(properties.getBatchSize());
+            while (rows.hasNext()) {
+                ImportRow row = rows.next();
+                progress.rows++;
+
+                String problem = validate(row);
+                if (problem != null) {
+                    progress.rejected++;
+                    write(output, UserImportEventDto.builder()
+                            .type("rejected").line(row.line()).email(row.email()).reason(problem).build());
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() == properties.getBatchSize()) {
+                    flush(batch, progress, output);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch, progress, output);
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("User import stopped after {} rows: {}", progress.rows, e.getMessage());
+            write(output, UserImportEventDto.builder().type("error").line(progress.rows).reason(e.getMessage()).build());
+        }
+
+        write(output, progress.event("done"));
+        log.info("Imported {} users ({} conflicts, {} rejected) at {} rows/s",
+                progress.inserted, progress.conflicts, progress.rejected, progress.rowsPerSecond());
+    }
+
+    /**
+     * Hash, copy and merge one batch, then report its conflicts and the running totals
+     */
+    private void flush(List<ImportRow> batch, Progress progress, OutputStream output)
+            throws SQLException, IOException {
+        String[] hashes = passwordHasher.encodeAll(batch.stream().map(ImportRow::password).toList());
+
+        List<UserImportEventDto> conflicts;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                conflicts = merge(connection, batch, hashes);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        for (UserImportEventDto conflict : conflicts) {
+            write(output, conflict);
+        }
+        progress.conflicts += conflicts.size();
+        progress.inserted += batch.size() - conflicts.size();
+        write(output, progress.event("progress"));
+    }
+
+    /**
+     * Copy a hashed batch into the staging table and merge it into users
+     *
+     * @param connection connection inside a transaction
+     * @param batch
+     * @param hashes     encoded passwords, null where the row has none
+     * @return conflict events, in input order
+     */
+    private List<UserImportEventDto> merge(Connection connection, List<ImportRow> batch, String[] hashes)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < batch.size(); i++) {
+                ImportRow row = batch.get(i);
+                line.setLength(0);
+                line.append(row.line()).append(',');
+                appendCsv(line, row.email()).append(',');
+                appendCsv(line, row.username()).append(',');
+                // An unquoted empty field is NULL in COPY csv format
+                if (hashes[i] != null) {
+                    appendCsv(line, hashes[i]);
+                }
+                line.append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<UserImportEventDto> conflicts = new ArrayList<>();
+        try (PreparedStatement merge = connection.prepareStatement(MERGE)) {
+            merge.setObject(1, now);
+            merge.setObject(2, now);
+            try (ResultSet resultSet = merge.executeQuery()) {
+                while (resultSet.next()) {
+                    conflicts.add(UserImportEventDto.builder()
+                            .type("conflict").line(resultSet.getLong(1)).email(resultSet.getString(2)).build());
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Apply the signup constraints
+     *
+     * @param row
+     * @return reason the row is rejected, null if it is valid
+     */
+    private static String validate(ImportRow row) {
+        if (row.email() == null || row.email().length() > 50 || row.email().indexOf('@') < 1) {
+            return "Invalid email";
+        }
+        if (row.username() == null || row.username().length() < 4 || row.username().length() > 30) {
+            return "Username must be between 4 and 30 characters";
+        }
+        if (row.password() != null && row.password().length() < 8) {
+            return "Password must be at least 8 characters long";
+        }
+        return null;
+    }
+
+    private Iterator<ImportRow> ndjsonRows(InputStream input) throws IOException {
+        MappingIterator<ImportRecord> records = objectMapper.readerFor(ImportRecord.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(input);
+        return new Iterator<>() {
+            private long line;
+
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public ImportRow next() {
+                ImportRecord record = records.next();
+                return new ImportRow(++line, trim(record.email()), trim(record.username()), blankToNull(record.password()));
+            }
+        };
+    }
+
+    private Iterator<ImportRow> csvRows(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return List.<ImportRow>of().iterator();
+        }
+        List<String> columns = splitCsv(header);
+        int emailColumn = columns.indexOf("email");
+        int usernameColumn = columns.indexOf("username");
+        int passwordColumn = columns.indexOf("password");
+        if (emailColumn < 0 || usernameColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain email and username");
+        }
+
+        return new Iterator<>() {
+            private long line;
+            private String next = readLine();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ImportRow next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> fields = splitCsv(next);
+                next = readLine();
+                return new ImportRow(++line,
+                        trim(field(fields, emailColumn)),
+                        trim(field(fields, usernameColumn)),
+                        blankToNull(field(fields, passwordColumn)));
+            }
+
+            private String readLine() {
+                try {
+                    String value;
+                    do {
+                        value = reader.readLine();
+                    } while (value != null && value.isBlank());
+                    return value;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Split a CSV line, honouring double-quoted fields (without embedded line breaks)
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static StringBuilder appendCsv(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private void write(OutputStream output, UserImportEventDto event) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(event));
+        output.write('\n');
+        output.flush();
+    }
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private record ImportRecord(String email, String username, String password) {
+    }
+
+    private record ImportRow(long line, String email, String username, String password) {
+    }
+
+    private static final class Progress {
+        private final long startedAt;
+        private long rows;
+        private long inserted;
+        private long conflicts;
+        private long rejected;
+
+        private Progress(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private long rowsPerSecond() {
+            long elapsed = Math.max(1, System.nanoTime() - startedAt);
+            return rows * 1_000_000_000L / elapsed;
+        }
+
+        private UserImportEventDto event(String type) {
+            return UserImportEventDto.builder()
+                    .type(type)
+                    .rows(rows)
+                    .inserted(inserted)
+                    .conflicts(conflicts)
+                    .rejected(rejected)
+                    .rowsPerSecond(rowsPerSecond())
+                    .build();
+        }
+    }
+}
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "user.import")
+class UserImportProperties {
+    /**
+     * Rows hashed, copied and committed together; bounds the memory used by an import
+     */
+    private int batchSize = 5000;
+}
@@ -1,47 +1,244 @@
 package com.kcdevdes.poppick.service;
 
+import com.kcdevdes.poppick.common.cache.UserBatchLoader;
+import com.kcdevdes.poppick.common.cache.UserCache;
+import com.kcdevdes.poppick.common.datasource.ReadYourWritesTracker;
+import com.kcdevdes.poppick.common.datasource.ReplicaRouting;
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import com.kcdevdes.poppick.common.util.LimitedUserMapper;
+import com.kcdevdes.poppick.common.util.UserMapper;
+import com.kcdevdes.poppick.dto.request.UpdateUserRequestDto;
+import com.kcdevdes.poppick.dto.response.LimitedUserResponseDto;
+import com.kcdevdes.poppick.dto.response.UserBatchResponseDto;
+import com.kcdevdes.poppick.dto.response.UserResponseDto;
+import com.kcdevdes.poppick.dto.response.UserSearchResponseDto;
 import com.kcdevdes.poppick.entity.User;
 import com.kcdevdes.poppick.repository.UserRepository;
-import jakarta.transaction.Transactional;
-import org.springframework.http.HttpStatus;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import com.kcdevdes.poppick.repository.UserVersion;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
 public class UserService {
 
+    private static final int MAX_SEARCH_TERM_LENGTH = 30;
+    private static final int MIN_SUBSTRING_TERM_LENGTH = 3;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final UserBatchLoader userBatchLoader;
+    private final UserMapper userMapper;
+    private final LimitedUserMapper limitedUserMapper;
 
     public UserService(
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UserCache userCache,
+            ReadYourWritesTracker readYourWritesTracker,
+            UserBatchLoader userBatchLoader,
+            UserMapper userMapper,
+            LimitedUserMapper limitedUserMapper) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.userBatchLoader = userBatchLoader;
+        this.userMapper = userMapper;
+        this.limitedUserMapper = limitedUserMapper;
     }
 
     /**
-     * Get a user by ID
+     * Get a user by ID, served from the user cache when possible
      *
      * @param id
-     * @return User
-     * @throws ResponseStatusException if user not found
+     * @return detached User without a password
+     * @throws DomainException if user not found
      */
+    @Transactional(readOnly = true)
     public User getUserById(Integer id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User Not Found"));
+        return getSnapshotById(id).toUser();
+    }
+
+    /**
+     * Get a user by ID without loading the entity, served from the user cache when possible
+     *
+     * @param id
+     * @return UserSnapshot, carrying the version for the ETag
+     * @throws DomainException if user not found
+     */
+    @Transactional(readOnly = true)
+    public UserSnapshot getUserSnapshotById(Integer id) {
+        return getSnapshotById(id);
+    }
+
+    /**
+     * Get the current version of a user for a conditional GET, from the user cache or a version-only query
+     *
+     * @param id
+     * @return UserVersion, empty if user not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserVersion> getUserVersionById(Integer id) {
+        return userCache.peekById(id).map(UserSnapshot::version)
+                .or(routed(id, null, () -> userRepository.findVersionById(id)));
     }
 
     /**
-     * Get a user by email
+     * Get the current version of a user for a conditional GET, from the user cache or a version-only query
      *
      * @param email
-     * @return User
-     * @throws ResponseStatusException if user not found
+     * @return UserVersion, empty if user not found
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserVersion> getUserVersionByEmail(String email) {
+        return userCache.peekByEmail(email).map(UserSnapshot::version)
+                .or(routed(null, email, () -> userRepository.findVersionByEmail(email)));
+    }
+
+    /**
+     * Get the public profiles of several users, from the user cache and one query for the rest
+     *
+     * @param ids requested ids, duplicates allowed, at most 100
+     * @return profiles in request order, with missing ids marked instead of failing the batch
+     * @throws DomainException if no or too many ids are requested
+     */
+    @Transactional(readOnly = true)
+    public UserBatchResponseDto getLimitedUsersByIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new DomainException(ErrorCode.INVALID_BATCH_SIZE);
+        }
+
+        Set<Integer> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        Map<Integer, UserSnapshot> found = userCache.getAllById(distinct, missing ->
+                userBatchLoader.load(missing, this::routedBatch));
+
+        List<LimitedUserResponseDto> users = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            UserSnapshot snapshot = id != null ? found.get(id) : null;
+            users.add(snapshot != null ? limitedUserMapper.toDto(snapshot) : null);
+            if (snapshot == null) {
+                missing.add(id);
+            }
+        }
+        return new UserBatchResponseDto(users, missing);
+    }
+
+    /**
+     * Get a user by email, served from the user cache when possible
+     *
+     * @param email
+     * @return detached User without a password
+     * @throws DomainException if user not found
      */
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User Not Found"));
+        return getSnapshotByEmail(email).toUser();
+    }
+
+    /**
+     * Get the full profile of a user by email without loading the entity
+     *
+     * @param email
+     * @return UserResponseDto
+     * @throws DomainException if user not found
+     */
+    @Transactional(readOnly = true)
+    public UserResponseDto getUserResponseByEmail(String email) {
+        return userMapper.toDto(getSnapshotByEmail(email));
+    }
+
+    /**
+     * Find a user by email, served from the user cache when possible
+     *
+     * @param email
+     * @return Optional UserSnapshot
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserSnapshot> findUserByEmail(String email) {
+        return userCache.getByEmail(email,
+                routed(null, email, () -> userRepository.findSnapshotByEmail(email)));
+    }
+
+    /**
+     * Find a user by OAuth provider identity
+     *
+     * @param oauthProvider
+     * @param oauthId
+     * @return Optional UserSnapshot
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserSnapshot> findUserByOauth(String oauthProvider, String oauthId) {
+        return userRepository.findSnapshotByOauth(oauthProvider, oauthId);
+    }
+
+    /**
+     * Search users by username with keyset pagination
+     *
+     * @param term   text to look for
+     * @param match  "prefix" or "contains"
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param limit  page size, capped at 100
+     * @return one page of users
+     * @throws DomainException if the term, match mode or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public UserSearchResponseDto searchUsers(String term, String match, String cursor, int limit) {
+        String trimmed = term == null ? "" : term.strip();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_SEARCH_TERM_LENGTH) {
+            throw new DomainException(ErrorCode.INVALID_SEARCH_TERM);
+        }
+        boolean prefix = switch (match) {
+            case "prefix" -> true;
+            case "contains" -> false;
+            default -> throw new DomainException(ErrorCode.INVALID_MATCH_MODE);
+        };
+        // Shorter substrings have no trigram to use and would scan the table
+        if (!prefix && trimmed.length() < MIN_SUBSTRING_TERM_LENGTH) {
+            throw new DomainException(ErrorCode.SEARCH_TERM_TOO_SHORT);
+        }
+        int pageSize = Math.clamp(limit, 1, MAX_SEARCH_LIMIT);
+
+        String afterUsername = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.indexOf(':');
+            try {
+                afterId = Integer.valueOf(decoded.substring(0, separator));
+                afterUsername = decoded.substring(separator + 1);
+            } catch (RuntimeException e) {
+                throw new DomainException(ErrorCode.INVALID_CURSOR);
+            }
+        }
+
+        // One extra row tells whether there is a next page
+        List<UserSnapshot> rows = userRepository.searchByUsername(trimmed, prefix, afterUsername, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSnapshot> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            UserSnapshot last = page.get(page.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.id() + ":" + last.username()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new UserSearchResponseDto(page.stream().map(limitedUserMapper::toDto).toList(), nextCursor);
     }
 
     /**
@@ -50,24 +247,25 @@ public class UserService {
      * @param email
      * @param oauthProvider
      * @param oauthId
-     * @return User
-     * @throws ResponseStatusException if user not found or OAuth details mismatch
+     * @return detached User without a password, or null if no user has this email
+     * @throws DomainException if OAuth details mismatch
      */
+    @Transactional(readOnly = true)
     public User getUserByOauth(String email, String oauthProvider, String oauthId) {
         // Check if user exists and OAuth details match
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<UserSnapshot> userOptional = findUserByEmail(email);
         if (userOptional.isEmpty()) {
             return null;
         }
 
-        User user = userOptional.get();
+        User user = userOptional.get().toUser();
 
         if (!isOAuthUser(user)) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Standard Auth Required");
+            throw new DomainException(ErrorCode.STANDARD_AUTH_REQUIRED);
         }
 
         if (!compareOauthDetails(user, oauthProvider, oauthId)) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Wrong OAuth credentials");
+            throw new DomainException(ErrorCode.WRONG_OAUTH_CREDENTIALS);
         }
 
         return user;
@@ -81,30 +279,33 @@ public class UserService {
      * @return updated user
      */
     public User updateUserById(int userId, User updatedUser) {
-        User user = getUserById(userId);
+        User user = loadUserById(userId);
 
         // Update user details
         user.setUsername(updatedUser.getUsername());
         user.setProfileImage(updatedUser.getProfileImage());
 
+        userCache.evict(user.getId(), user.getEmail());
         return userRepository.save(user);
     }
 
     /**
-     * Update a user by email
+     * Apply a partial profile update with a single UPDATE ... RETURNING
      *
      * @param email
-     * @param updatedUser
+     * @param requestDto        fields to change, null fields are left unchanged
+     * @param expectedVersions versions the client accepts (If-Match), null to skip the check
      * @return updated user
+     * @throws DomainException 404 if user not found, 412 if the user is at none of expectedVersions
      */
-    public User updateUserByEmail(String email, User updatedUser) {
-        User user = getUserByEmail(email);
+    public UserResponseDto updateProfile(String email, UpdateUserRequestDto requestDto,
+                                         List<UserVersion> expectedVersions) {
+        UserSnapshot updated = userRepository.updateProfile(
+                        email, requestDto.getUsername(), requestDto.getProfileImage(), expectedVersions)
+                .orElseThrow(() -> notFoundOrModified(email, expectedVersions));
 
-        // Update user details
-        user.setUsername(updatedUser.getUsername());
-        user.setProfileImage(updatedUser.getProfileImage());
-
-        return userRepository.save(user);
+        userCache.evict(updated.id(), updated.email());
+        return userMapper.toDto(updated);
     }
 
     /**
@@ -113,18 +314,107 @@ public class UserService {
      * @param id
      */
     public void deleteUserById(int id) {
-        User user = getUserById(id);
+        User user = loadUserById(id);
+        userCache.evict(user.getId(), user.getEmail());
         userRepository.delete(user);
     }
 
     /**
-     * Delete a user by email
+     * Delete a user by email with a single DELETE ... RETURNING
      *
      * @param email
+     * @param expectedVersions versions the client accepts (If-Match), null to skip the check
+     * @return the deleted user
+     * @throws DomainException 404 if user not found, 412 if the user is at none of expectedVersions
      */
-    public void deleteUserByEmail(String email) {
-        User user = getUserByEmail(email);
-        userRepository.delete(user);
+    public LimitedUserResponseDto deleteUserByEmail(String email, List<UserVersion> expectedVersions) {
+        UserSnapshot deleted = userRepository.deleteByEmailReturning(email, expectedVersions)
+                .orElseThrow(() -> notFoundOrModified(email, expectedVersions));
+
+        userCache.evict(deleted.id(), deleted.email());
+        return limitedUserMapper.toDto(deleted);
+    }
+
+    /**
+     * Drop a user from the user cache on every node, for writes made outside this service.
+     * Also keeps the user's reads on the primary for the read-your-writes window.
+     *
+     * @param id
+     * @param email
+     */
+    public void evictUser(Integer id, String email) {
+        userCache.evict(id, email);
+    }
+
+    /**
+     * Explain why a conditional write matched no row; only runs on the failure path
+     *
+     * @param email
+     * @param expectedVersions
+     * @return 412 if the user still exists under another version, 404 otherwise
+     */
+    private DomainException notFoundOrModified(String email, List<UserVersion> expectedVersions) {
+        if (expectedVersions != null && userRepository.findSnapshotByEmail(email).isPresent()) {
+            return new DomainException(ErrorCode.USER_MODIFIED);
+        }
+        return new DomainException(ErrorCode.USER_NOT_FOUND);
+    }
+
+    /**
+     * Read a user that was written within the read-your-writes window from the primary, not a replica
+     *
+     * @param id     may be null
+     * @param email  may be null
+     * @param loader repository lookup
+     * @return loader to hand to the user cache
+     */
+    private <T> Supplier<T> routed(Integer id, String email, Supplier<T> loader) {
+        return () -> readYourWritesTracker.isRecentlyWritten(id, email) ? ReplicaRouting.onPrimary(loader) : loader.get();
+    }
+
+    /**
+     * Load a batch in one query, from the primary if any of the users was just written
+     *
+     * @param ids
+     * @return found users
+     */
+    private List<UserSnapshot> routedBatch(List<Integer> ids) {
+        for (Integer id : ids) {
+            if (readYourWritesTracker.isRecentlyWritten(id, null)) {
+                return ReplicaRouting.onPrimary(() -> userRepository.findSnapshotsByIds(ids));
+            }
+        }
+        return userRepository.findSnapshotsByIds(ids);
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new DomainException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private UserSnapshot getSnapshotById(Integer id) {
+        return userCache.getById(id, routed(id, null, () -> userRepository.findSnapshotById(id)))
+                .orElseThrow(() -> new DomainException(ErrorCode.USER_NOT_FOUND));
+    }
+
+    private UserSnapshot getSnapshotByEmail(String email) {
+        return findUserByEmail(email)
+                .orElseThrow(() -> new DomainException(ErrorCode.USER_NOT_FOUND));
+    }
+
+    /**
+     * Load the managed entity for a write, bypassing the user cache
+     *
+     * @param id
+     * @return User
+     * @throws DomainException if user not found
+     */
+    private User loadUserById(Integer id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new DomainException(ErrorCode.USER_NOT_FOUND));
     }
 
     /**
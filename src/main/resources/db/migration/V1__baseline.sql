@@ -0,0 +1,38 @@
+-- Schema as previously created by hibernate ddl-auto=update.
+-- IF NOT EXISTS lets existing databases adopt migrations (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS users (
+    id             SERIAL PRIMARY KEY,
+    email          VARCHAR(50)  NOT NULL,
+    username       VARCHAR(30)  NOT NULL,
+    password       VARCHAR(255),
+    role           VARCHAR(20)  NOT NULL,
+    profile_image  VARCHAR(255),
+    oauth_provider VARCHAR(50),
+    oauth_id       VARCHAR(50),
+    created_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    id         BIGSERIAL PRIMARY KEY,
+    token_id   VARCHAR(36),
+    family_id  VARCHAR(36) NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    CONSTRAINT token_revocations_token_id_key UNIQUE (token_id)
+);
+
+CREATE INDEX IF NOT EXISTS token_revocations_family_id_idx ON token_revocations (family_id);
+CREATE INDEX IF NOT EXISTS token_revocations_revoked_at_idx ON token_revocations (revoked_at);
+
+CREATE TABLE IF NOT EXISTS signing_keys (
+    kid                VARCHAR(36) PRIMARY KEY,
+    algorithm          VARCHAR(10) NOT NULL,
+    public_key         TEXT        NOT NULL,
+    sealed_private_key TEXT        NOT NULL,
+    created_at         TIMESTAMP   NOT NULL,
+    activates_at       TIMESTAMP   NOT NULL,
+    expires_at         TIMESTAMP   NOT NULL
+);
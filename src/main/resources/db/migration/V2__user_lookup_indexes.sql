@@ -0,0 +1,6 @@
+-- Case-insensitive email identity. Fails if existing rows differ only by case; merge those first.
+CREATE UNIQUE INDEX users_email_lower_key ON users (lower(email));
+
+-- OAuth login resolves users by provider identity
+CREATE INDEX users_oauth_provider_id_idx ON users (oauth_provider, oauth_id)
+    WHERE oauth_provider IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Username search (GET /v1/users). Requires the pg_trgm extension (contrib, available on managed PostgreSQL).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Substring matches: lower(username) LIKE '%term%'
+CREATE INDEX users_username_trgm_idx ON users USING gin (lower(username) gin_trgm_ops);
+
+-- Prefix matches and the keyset order. The "C" collation makes LIKE 'term%' an index range scan
+-- and gives a byte order that the (username, id) seek condition can follow.
+CREATE INDEX users_username_search_idx ON users ((lower(username) COLLATE "C"), id);
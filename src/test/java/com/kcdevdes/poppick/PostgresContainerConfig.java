@@ -0,0 +1,22 @@
+package com.kcdevdes.poppick;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL for integration tests; the schema is created by the Flyway migrations.
+ * Test classes sharing this configuration share one container through the context cache.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresContainerConfig {
+
+    public static final String IMAGE = "postgres:16-alpine";
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgres() {
+        return new PostgreSQLContainer<>(IMAGE);
+    }
+}
@@ -0,0 +1,136 @@
+package com.kcdevdes.poppick.common.cache;
+
+import com.kcdevdes.poppick.common.datasource.ReadYourWritesTracker;
+import com.kcdevdes.poppick.entity.Role;
+import com.kcdevdes.poppick.repository.UserSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A read that loaded a row before a write committed must not put the old row back into the cache
+ */
+class UserCacheTest {
+
+    private static final UserSnapshot OLD = snapshot("old-name");
+    private static final UserSnapshot NEW = snapshot("new-name");
+
+    private UserCacheInvalidationChannel channel;
+    private UserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        UserCacheProperties properties = new UserCacheProperties();
+        channel = mock(UserCacheInvalidationChannel.class);
+        cache = new UserCache(properties, channel, mock(ReadYourWritesTracker.class));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cachesLoadedUsers() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getById(1, () -> load(loads, OLD));
+        cache.getByEmail("Fan@PopPick.com", () -> load(loads, NEW));
+
+        assertThat(cache.peekById(1)).contains(OLD);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsNotCached() {
+        // The writer evicts while the reader is still loading the row it read before the update
+        Optional<UserSnapshot> read = cache.getById(1, () -> {
+            cache.evict(1, OLD.email());
+            return Optional.of(OLD);
+        });
+
+        assertThat(read).contains(OLD);
+        assertThat(cache.peekById(1)).isEmpty();
+        assertThat(cache.peekByEmail(OLD.email())).isEmpty();
+        assertThat(cache.getById(1, () -> Optional.of(NEW))).contains(NEW);
+    }
+
+    @Test
+    void batchLoadOverlappingAnEvictionIsNotCached() {
+        Map<Integer, UserSnapshot> read = cache.getAllById(List.of(1), ids -> {
+            cache.evict(1, OLD.email());
+            return Map.of(1, OLD);
+        });
+
+        assertThat(read).containsEntry(1, OLD);
+        assertThat(cache.peekById(1)).isEmpty();
+    }
+
+    @Test
+    void loadOverlappingARemoteInvalidationIsNotCached() {
+        ArgumentCaptor<UserCacheInvalidationChannel.Listener> listener =
+                ArgumentCaptor.forClass(UserCacheInvalidationChannel.Listener.class);
+        verify(channel).subscribe(listener.capture());
+
+        cache.getById(1, () -> {
+            listener.getValue().invalidated(1, OLD.email(), System.currentTimeMillis());
+            return Optional.of(OLD);
+        });
+
+        assertThat(cache.peekById(1)).isEmpty();
+    }
+
+    @Test
+    void staleReadBetweenEvictionAndCommitIsDroppedAfterCommit() {
+        cache.getById(1, () -> Optional.of(OLD));
+
+        // Writer transaction: evicts first, commits later
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(1, OLD.email());
+
+        // A reader outside the transaction still sees the committed old row and caches it
+        cache.getById(1, () -> Optional.of(OLD));
+        assertThat(cache.peekById(1)).contains(OLD);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.peekById(1)).isEmpty();
+        assertThat(cache.peekByEmail(OLD.email())).isEmpty();
+        assertThat(cache.getById(1, () -> Optional.of(NEW))).contains(NEW);
+        assertThat(cache.peekById(1)).contains(NEW);
+    }
+
+    @Test
+    void evictionPublishesToOtherNodes() {
+        cache.evict(1, OLD.email());
+
+        verify(channel).publish(1, OLD.email());
+    }
+
+    private static Optional<UserSnapshot> load(AtomicInteger loads, UserSnapshot snapshot) {
+        loads.incrementAndGet();
+        return Optional.of(snapshot);
+    }
+
+    private static UserSnapshot snapshot(String username) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return new UserSnapshot(1, "fan@poppick.com", username, Role.USER, null, null, null,
+                createdAt, createdAt.plusMinutes(username.length()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.kcdevdes.poppick.common.cache;
+
+import com.kcdevdes.poppick.common.filter.JwtAuthenticationFilter;
+import com.kcdevdes.poppick.common.handler.ErrorResponseWriter;
+import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verified tokens are served from the cache until their own exp or the maximum TTL, whichever comes first
+ */
+class VerifiedTokenCacheTest {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void returnsCachedAuthenticationUntilTheTokenExpires() throws Exception {
+        VerifiedTokenCache cache = cache(100, 300);
+        Authentication authentication = authentication(System.currentTimeMillis() + 200);
+
+        cache.put("token-a", authentication, expiresAt(authentication));
+
+        assertThat(cache.get("token-a")).isSameAs(authentication);
+        assertThat(cache.get("token-b")).isNull();
+
+        // The entry lives no longer than the token's own exp, well below the 300 s maximum TTL
+        Thread.sleep(250);
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.getStats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void capsTheTtlAtTheConfiguredMaximum() throws Exception {
+        VerifiedTokenCache cache = cache(100, 1);
+        Authentication authentication = authentication(System.currentTimeMillis() + 3_600_000);
+
+        cache.put("token-a", authentication, expiresAt(authentication));
+        assertThat(cache.get("token-a")).isSameAs(authentication);
+
+        Thread.sleep(1100);
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    @Test
+    void ignoresTokensThatAlreadyExpired() {
+        VerifiedTokenCache cache = cache(100, 300);
+        Authentication authentication = authentication(System.currentTimeMillis() - 1);
+
+        cache.put("token-a", authentication, expiresAt(authentication));
+
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.getStats().size()).isZero();
+    }
+
+    @Test
+    void evictsWhenFull() {
+        VerifiedTokenCache cache = cache(10, 300);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        for (int i = 0; i <= 10; i++) {
+            cache.put("token-" + i, authentication(expiresAt), expiresAt);
+        }
+
+        VerifiedTokenCache.Stats stats = cache.getStats();
+        assertThat(stats.size()).isLessThanOrEqualTo(10);
+        assertThat(stats.evictions()).isPositive();
+        // The newest token always gets in
+        assertThat(cache.get("token-10")).isNotNull();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        VerifiedTokenCache cache = cache(0, 300);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        cache.put("token-a", authentication(expiresAt), expiresAt);
+
+        assertThat(cache.get("token-a")).isNull();
+    }
+
+    @Test
+    void cacheHitSkipsVerification() throws Exception {
+        JwtProvider jwtProvider = mock(JwtProvider.class);
+        Authentication authentication = authentication(System.currentTimeMillis() + 60_000);
+        when(jwtProvider.authenticate("token-a")).thenReturn(authentication);
+        JwtAuthenticationFilter filter =
+                new JwtAuthenticationFilter(jwtProvider, cache(100, 300), mock(ErrorResponseWriter.class));
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users/me");
+            request.addHeader("Authorization", "Bearer token-a");
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isSameAs(authentication);
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(jwtProvider, times(1)).authenticate("token-a");
+    }
+
+    private static VerifiedTokenCache cache(int maxSize, long maxTtlSeconds) {
+        VerifiedTokenCacheProperties properties = new VerifiedTokenCacheProperties();
+        properties.setMaxSize(maxSize);
+        properties.setMaxTtlSeconds(maxTtlSeconds);
+        return new VerifiedTokenCache(properties);
+    }
+
+    private static Authentication authentication(long expiresAt) {
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser user = new AuthenticatedUser("viewer@poppick.com", authorities, expiresAt);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+
+    private static long expiresAt(Authentication authentication) {
+        return ((AuthenticatedUser) authentication.getPrincipal()).expiresAt();
+    }
+}
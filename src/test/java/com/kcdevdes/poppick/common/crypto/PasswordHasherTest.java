@@ -0,0 +1,103 @@
+package com.kcdevdes.poppick.common.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk hashing stays within its share of the workers and never pushes interactive requests into 503
+ */
+class PasswordHasherTest {
+
+    private static final int THREADS = 4;
+    private static final int BULK_THREADS = 2;
+
+    private final SlowEncoder encoder = new SlowEncoder();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void shutdown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodesAllInOrderAndSkipsNulls() {
+        hasher = hasher(64);
+
+        String[] encoded = hasher.encodeAll(Arrays.asList("bulk-a", null, "bulk-b"));
+
+        assertThat(encoded).containsExactly("hash:bulk-a", null, "hash:bulk-b");
+    }
+
+    @Test
+    void bulkJobLeavesWorkersAndQueueToInteractiveRequests() throws Exception {
+        // A queue smaller than the batch: submitting the whole batch at once would reject logins
+        hasher = hasher(2);
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            passwords.add("bulk-" + i);
+        }
+
+        CompletableFuture<String[]> bulk = CompletableFuture.supplyAsync(() -> hasher.encodeAll(passwords));
+        for (int i = 0; i < 10; i++) {
+            assertThat(hasher.encode("login-" + i)).isEqualTo("hash:login-" + i);
+        }
+
+        String[] encoded = bulk.get(30, TimeUnit.SECONDS);
+        assertThat(encoded).hasSize(60);
+        assertThat(encoded[59]).isEqualTo("hash:bulk-59");
+        assertThat(encoder.maxBulkRunning).hasValueLessThanOrEqualTo(BULK_THREADS);
+    }
+
+    private PasswordHasher hasher(int queueCapacity) {
+        PasswordHasherProperties properties = new PasswordHasherProperties();
+        properties.setThreads(THREADS);
+        properties.setBulkThreads(BULK_THREADS);
+        properties.setQueueCapacity(queueCapacity);
+        return new PasswordHasher(encoder, properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Takes a few milliseconds per hash and records how many bulk hashes run at once
+     */
+    private static class SlowEncoder implements PasswordEncoder {
+
+        private final AtomicInteger bulkRunning = new AtomicInteger();
+        private final AtomicInteger maxBulkRunning = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            boolean bulk = rawPassword.toString().startsWith("bulk-");
+            if (bulk) {
+                maxBulkRunning.accumulateAndGet(bulkRunning.incrementAndGet(), Math::max);
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (bulk) {
+                    bulkRunning.decrementAndGet();
+                }
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
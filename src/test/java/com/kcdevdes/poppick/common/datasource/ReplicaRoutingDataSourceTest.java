@@ -0,0 +1,125 @@
+package com.kcdevdes.poppick.common.datasource;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between a primary and a replica database. Both are plain PostgreSQL containers with different
+ * database names, so {@code current_database()} tells which one served a statement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@DirtiesContext
+@Import(ReplicaRoutingDataSourceTest.ProbeConfig.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY =
+            new PostgreSQLContainer<>(PostgresContainerConfig.IMAGE).withDatabaseName("poppick");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA =
+            new PostgreSQLContainer<>(PostgresContainerConfig.IMAGE).withDatabaseName("poppick_replica");
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("datasource.replicas[0].url", REPLICA::getJdbcUrl);
+        registry.add("datasource.replicas[0].username", REPLICA::getUsername);
+        registry.add("datasource.replicas[0].password", REPLICA::getPassword);
+        // Fail fast once the replica is gone
+        registry.add("spring.datasource.hikari.connection-timeout", () -> "2000");
+    }
+
+    @Autowired
+    private RoutingProbe probe;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Test
+    @Order(1)
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(probe.readOnly()).isEqualTo("poppick_replica");
+    }
+
+    @Test
+    @Order(2)
+    void readWriteTransactionsGoToThePrimary() {
+        assertThat(probe.readWrite()).isEqualTo("poppick");
+    }
+
+    @Test
+    @Order(3)
+    void onPrimaryOverridesReadOnly() {
+        assertThat(ReplicaRouting.onPrimary(probe::readOnly)).isEqualTo("poppick");
+        assertThat(probe.readOnly()).isEqualTo("poppick_replica");
+    }
+
+    @Test
+    @Order(4)
+    void ejectedReplicaFallsBackToThePrimary() {
+        REPLICA.stop();
+
+        assertThat(probe.readOnly()).isEqualTo("poppick");
+        assertThat(routingDataSource.getHealthyReplicas()).isZero();
+        assertThat(probe.readOnly()).isEqualTo("poppick");
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ProbeConfig {
+        @Bean
+        RoutingProbe routingProbe(JdbcTemplate jdbcTemplate) {
+            return new RoutingProbe(jdbcTemplate);
+        }
+    }
+
+    /**
+     * Reports the database serving each kind of transaction
+     */
+    static class RoutingProbe {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        RoutingProbe(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Transactional(readOnly = true)
+        public String readOnly() {
+            return currentDatabase();
+        }
+
+        @Transactional
+        public String readWrite() {
+            return currentDatabase();
+        }
+
+        private String currentDatabase() {
+            return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+        }
+    }
+}
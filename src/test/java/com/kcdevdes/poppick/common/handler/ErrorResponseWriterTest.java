@@ -0,0 +1,89 @@
+package com.kcdevdes.poppick.common.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written error bodies must be valid JSON whatever the path and message contain
+ */
+class ErrorResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorResponseWriter writer = new ErrorResponseWriter();
+
+    @Test
+    void returnsPlainValuesUnchanged() {
+        String value = "/v1/users/42?q=fan";
+
+        assertThat(ErrorResponseWriter.escape(value)).isSameAs(value);
+        assertThat(ErrorResponseWriter.escape(null)).isEmpty();
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndControlCharacters() {
+        assertThat(ErrorResponseWriter.escape("a\"b")).isEqualTo("a\\\"b");
+        assertThat(ErrorResponseWriter.escape("a\\b")).isEqualTo("a\\\\b");
+        assertThat(ErrorResponseWriter.escape("a\nb\rc\td")).isEqualTo("a\\nb\\rc\\td");
+        assertThat(ErrorResponseWriter.escape("a" + (char) 0 + "b" + (char) 0x1f)).isEqualTo("a\\u0000b\\u001f");
+    }
+
+    @Test
+    void escapesLineAndParagraphSeparators() {
+        // Valid in JSON, but they end a line in JavaScript before ES2019
+        assertThat(ErrorResponseWriter.escape("a\u2028b\u2029c")).isEqualTo("a\\u2028b\\u2029c");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/v1/users/\"quoted\"",
+            "/v1/users/back\\slash",
+            "/v1/users/line\nbreak\r\ttab",
+            "/v1/users/\u2028\u2029",
+            "/v1/users/café/🍿",
+            "\\u0022 not an escape"
+    })
+    void bodyParsesAndKeepsThePath(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(response, ErrorCode.USER_NOT_FOUND, path);
+
+        JsonNode body = parse(response);
+        assertThat(body.get("path").asText()).isEqualTo(path);
+        assertThat(body.get("status").asInt()).isEqualTo(ErrorCode.USER_NOT_FOUND.getStatus().value());
+        assertThat(body.get("message").asText()).isEqualTo(ErrorCode.USER_NOT_FOUND.getMessage());
+    }
+
+    @Test
+    void bodyWithControlCharactersParses() throws Exception {
+        StringBuilder path = new StringBuilder("/v1/");
+        for (char c = 0; c < 0x20; c++) {
+            path.append(c);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(response, HttpStatus.BAD_REQUEST, "Bad \"input\"\n", path.toString());
+
+        JsonNode body = parse(response);
+        assertThat(body.get("path").asText()).isEqualTo(path.toString());
+        assertThat(body.get("message").asText()).isEqualTo("Bad \"input\"\n");
+        assertThat(body.get("error").asText()).isEqualTo("Bad Request");
+    }
+
+    private JsonNode parse(MockHttpServletResponse response) throws Exception {
+        byte[] bytes = response.getContentAsByteArray();
+        assertThat(response.getContentLength()).isEqualTo(bytes.length);
+        assertThat(response.getContentType()).startsWith("application/json");
+        JsonNode body = objectMapper.readTree(bytes);
+        assertThat(body.fieldNames()).toIterable()
+                .containsExactly("timestamp", "status", "error", "message", "path");
+        return body;
+    }
+}
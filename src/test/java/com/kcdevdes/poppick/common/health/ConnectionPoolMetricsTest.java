@@ -0,0 +1,50 @@
+package com.kcdevdes.poppick.common.health;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The pool keeps feeding both the admin view and the hikaricp_* meters scraped by Prometheus
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class ConnectionPoolMetricsTest {
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordsAcquisitionsInBothViews() {
+        long before = connectionPoolMetrics.getStats().acquisitionTime().count();
+
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+
+        ConnectionPoolMetrics.Stats stats = connectionPoolMetrics.getStats();
+        assertThat(stats.acquisitionTime().count()).isGreaterThan(before);
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", stats.poolName()).timer();
+        assertThat(acquire).isNotNull();
+        assertThat(acquire.count()).isPositive();
+
+        Gauge max = meterRegistry.find("hikaricp.connections.max").tag("pool", stats.poolName()).gauge();
+        assertThat(max).isNotNull();
+        assertThat(max.value()).isEqualTo(stats.max());
+    }
+}
@@ -0,0 +1,70 @@
+package com.kcdevdes.poppick.common.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The checker keeps its own schedule, independent of the shared @Scheduled pool, and survives any failure
+ */
+class DatabaseHealthCheckerTest {
+
+    private DataSource dataSource;
+    private DatabaseHealthChecker checker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        DatabaseHealthProperties properties = new DatabaseHealthProperties();
+        properties.setIntervalMs(20);
+        properties.setMaxStalenessMs(1000);
+        checker = new DatabaseHealthChecker(dataSource, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checker.stop();
+    }
+
+    @Test
+    void checksWithoutTheSpringScheduler() throws Exception {
+        assertThat(checker.getStatus().up()).isFalse();
+
+        checker.start();
+
+        awaitStatus(true);
+    }
+
+    @Test
+    void runtimeFailureReportsDownAndKeepsChecking() throws Exception {
+        Connection connection = dataSource.getConnection();
+        when(dataSource.getConnection())
+                .thenThrow(new IllegalStateException("Connection limit reached"))
+                .thenReturn(connection);
+
+        checker.start();
+
+        // The failed first check did not cancel the schedule, the next one recovers
+        awaitStatus(true);
+    }
+
+    private void awaitStatus(boolean up) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (checker.getStatus().up() != up && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(checker.getStatus().up()).isEqualTo(up);
+    }
+}
@@ -0,0 +1,115 @@
+package com.kcdevdes.poppick.common.provider;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import com.kcdevdes.poppick.entity.SigningKey;
+import com.kcdevdes.poppick.repository.SigningKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several nodes sharing one signing_keys table rotate at the same moment, exactly one of them creates the key
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class SigningKeyRingRotationTest {
+
+    private static final int NODES = 6;
+    private static final String ALGORITHM = "EdDSA";
+
+    @Autowired
+    private SigningKeyRepository signingKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @AfterEach
+    void cleanUp() {
+        signingKeyRepository.deleteAll(keys());
+    }
+
+    @Test
+    void concurrentNodesCreateOneFirstKey() throws Exception {
+        List<SigningKeyRing> nodes = nodes(Duration.ofDays(7));
+
+        rotateAtOnce(nodes);
+
+        assertThat(keys()).hasSize(1);
+        String kid = keys().get(0).getKid();
+        assertThat(nodes).allSatisfy(node -> assertThat(node.signingKey().kid()).isEqualTo(kid));
+    }
+
+    @Test
+    void concurrentNodesScheduleOneSuccessor() throws Exception {
+        // Every key is due for rotation as soon as it is active
+        List<SigningKeyRing> nodes = nodes(Duration.ZERO);
+        nodes.get(0).rotate();
+        String first = keys().get(0).getKid();
+
+        rotateAtOnce(nodes);
+
+        List<SigningKey> keys = keys();
+        assertThat(keys).hasSize(2);
+        // The successor is only published yet, the first key keeps signing
+        assertThat(keys.get(0).getActivatesAt()).isAfter(LocalDateTime.now());
+        assertThat(nodes).allSatisfy(node -> assertThat(node.signingKey().kid()).isEqualTo(first));
+    }
+
+    private List<SigningKeyRing> nodes(Duration rotationInterval) {
+        SigningKeyProperties properties = new SigningKeyProperties();
+        properties.setAlgorithm(ALGORITHM);
+        properties.setRotationInterval(rotationInterval);
+
+        List<SigningKeyRing> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SigningKeyRing(signingKeyRepository, properties, jwtProperties, transactionManager));
+        }
+        return nodes;
+    }
+
+    private static void rotateAtOnce(List<SigningKeyRing> nodes) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (SigningKeyRing node : nodes) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    node.rotate();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<SigningKey> keys() {
+        return signingKeyRepository.findByAlgorithmAndExpiresAtAfterOrderByActivatesAtDesc(
+                ALGORITHM, LocalDateTime.now());
+    }
+}
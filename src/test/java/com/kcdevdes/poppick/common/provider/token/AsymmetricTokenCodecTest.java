@@ -0,0 +1,88 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ES256 and EdDSA tokens signed and verified with the pooled Signature objects of a key
+ */
+class AsymmetricTokenCodecTest {
+
+    private static final int TOKENS = 2_000;
+
+    @ParameterizedTest
+    @EnumSource(value = JwsAlgorithm.class, names = {"ES256", "EDDSA"})
+    void reusesSignaturesAcrossVirtualThreads(JwsAlgorithm algorithm) throws Exception {
+        TokenCodec codec = codec(key("k1", algorithm));
+
+        List<Future<TokenVerification>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < TOKENS; i++) {
+                TokenClaims claims = new TokenClaims("user-" + i + "@poppick.com", "USER", expiresIn(3600));
+                futures.add(executor.submit(() -> codec.decode(codec.encode(claims))));
+            }
+            for (int i = 0; i < TOKENS; i++) {
+                TokenVerification verification = futures.get(i).get(30, TimeUnit.SECONDS);
+                assertThat(verification.status()).isEqualTo(TokenStatus.VALID);
+                assertThat(verification.claims().subject()).isEqualTo("user-" + i + "@poppick.com");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JwsAlgorithm.class, names = {"ES256", "EDDSA"})
+    void rejectedSignatureDoesNotPoisonThePool(JwsAlgorithm algorithm) throws Exception {
+        TokenCodec codec = codec(key("k1", algorithm));
+        String token = codec.encode(new TokenClaims("viewer@poppick.com", "USER", expiresIn(3600)));
+
+        // A truncated signature makes the provider throw, a flipped one just fails verification
+        String truncated = token.substring(0, token.length() - 8);
+        int index = token.lastIndexOf('.') + 10;
+        String flipped = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A')
+                + token.substring(index + 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(codec.decode(truncated).status()).isEqualTo(TokenStatus.INVALID_SIGNATURE);
+            assertThat(codec.decode(flipped).status()).isEqualTo(TokenStatus.INVALID_SIGNATURE);
+            assertThat(codec.decode(token).status()).isEqualTo(TokenStatus.VALID);
+        }
+    }
+
+    private static TokenCodec codec(JwsKey key) {
+        return new AsymmetricTokenCodec(new JwsKeyResolver() {
+            @Override
+            public JwsKey signingKey() {
+                return key;
+            }
+
+            @Override
+            public JwsKey resolve(String encodedHeader) {
+                return key.encodedHeader().equals(encodedHeader) ? key : null;
+            }
+        }, null);
+    }
+
+    private static JwsKey key(String kid, JwsAlgorithm algorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+        if (algorithm == JwsAlgorithm.ES256) {
+            generator.initialize(256);
+        }
+        KeyPair pair = generator.generateKeyPair();
+        return new JwsKey(kid, algorithm, pair.getPrivate(), pair.getPublic());
+    }
+
+    private static long expiresIn(long seconds) {
+        return System.currentTimeMillis() / 1000L + seconds;
+    }
+}
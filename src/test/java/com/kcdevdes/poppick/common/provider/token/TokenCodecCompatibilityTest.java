@@ -0,0 +1,127 @@
+package com.kcdevdes.poppick.common.provider.token;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tokens signed by either HS256 codec must verify with the other, and both must reject the same tokens
+ */
+class TokenCodecCompatibilityTest {
+
+    private static final byte[] SECRET =
+            HexFormat.of().parseHex("70371cbf01ff4aa7c98b92714df5be8213c7bc5c32c168645126947f91a4a3c3");
+
+    static Stream<Arguments> codecPairs() {
+        TokenCodec jjwt = new JjwtTokenCodec(SECRET);
+        TokenCodec compact = new CompactHs256TokenCodec(SECRET);
+        return Stream.of(
+                Arguments.of("jjwt -> compact", jjwt, compact),
+                Arguments.of("compact -> jjwt", compact, jjwt),
+                Arguments.of("jjwt -> jjwt", jjwt, jjwt),
+                Arguments.of("compact -> compact", compact, compact));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void verifiesAccessToken(String name, TokenCodec signer, TokenCodec verifier) {
+        TokenClaims claims = new TokenClaims("viewer@poppick.com", "USER,ADMIN", expiresIn(3600));
+
+        TokenVerification verification = verifier.decode(signer.encode(claims));
+
+        assertThat(verification.status()).isEqualTo(TokenStatus.VALID);
+        assertThat(verification.claims()).isEqualTo(claims);
+        assertThat(verification.claims().isRefreshToken()).isFalse();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void verifiesRefreshToken(String name, TokenCodec signer, TokenCodec verifier) {
+        TokenClaims claims = new TokenClaims("viewer@poppick.com", "USER", expiresIn(3600),
+                "6f1c2a9e-7c55-4c43-9a35-0b3f3e6f2a10", "2d0f7d6b-3d61-4b7b-8a9c-5e0b1f3c9d42");
+
+        TokenVerification verification = verifier.decode(signer.encode(claims));
+
+        assertThat(verification.status()).isEqualTo(TokenStatus.VALID);
+        assertThat(verification.claims()).isEqualTo(claims);
+        assertThat(verification.claims().isRefreshToken()).isTrue();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void rejectsTamperedSignature(String name, TokenCodec signer, TokenCodec verifier) {
+        String token = signer.encode(new TokenClaims("viewer@poppick.com", "USER", expiresIn(3600)));
+
+        // Change a character in the middle of the signature, the last one may only carry padding bits
+        int index = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+
+        assertThat(verifier.decode(tampered).status()).isEqualTo(TokenStatus.INVALID_SIGNATURE);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void rejectsTamperedPayload(String name, TokenCodec signer, TokenCodec verifier) {
+        String user = signer.encode(new TokenClaims("viewer@poppick.com", "USER", expiresIn(3600)));
+        String admin = signer.encode(new TokenClaims("viewer@poppick.com", "ADMIN", expiresIn(3600)));
+
+        // Payload of the admin token with the signature of the user token
+        String forged = admin.substring(0, admin.lastIndexOf('.')) + user.substring(user.lastIndexOf('.'));
+
+        assertThat(verifier.decode(forged).status()).isEqualTo(TokenStatus.INVALID_SIGNATURE);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void rejectsExpiredToken(String name, TokenCodec signer, TokenCodec verifier) {
+        String token = signer.encode(new TokenClaims("viewer@poppick.com", "USER", expiresIn(-60)));
+
+        TokenVerification verification = verifier.decode(token);
+
+        assertThat(verification.status()).isEqualTo(TokenStatus.EXPIRED);
+        assertThat(verification.claims()).isNull();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void rejectsTokenWithoutExpiration(String name, TokenCodec signer, TokenCodec verifier) {
+        // Correctly signed with the shared secret, but neither codec ever issues a token without exp
+        String token = Jwts.builder()
+                .setSubject("viewer@poppick.com")
+                .claim("auth", "USER")
+                .signWith(Keys.hmacShaKeyFor(SECRET), SignatureAlgorithm.HS256)
+                .compact();
+
+        TokenVerification verification = verifier.decode(token);
+
+        assertThat(verification.status()).isEqualTo(TokenStatus.MALFORMED);
+        assertThat(verification.claims()).isNull();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("codecPairs")
+    void rejectsTokenSignedWithAnotherKey(String name, TokenCodec signer, TokenCodec verifier) {
+        byte[] otherSecret = SECRET.clone();
+        otherSecret[0] ^= 1;
+        TokenCodec other = signer instanceof JjwtTokenCodec
+                ? new JjwtTokenCodec(otherSecret)
+                : new CompactHs256TokenCodec(otherSecret);
+
+        String token = other.encode(new TokenClaims("viewer@poppick.com", "USER", expiresIn(3600)));
+
+        assertThat(verifier.decode(token).status()).isEqualTo(TokenStatus.INVALID_SIGNATURE);
+    }
+
+    private static long expiresIn(long seconds) {
+        return System.currentTimeMillis() / 1000L + seconds;
+    }
+}
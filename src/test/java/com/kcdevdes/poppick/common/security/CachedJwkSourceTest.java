@@ -0,0 +1,197 @@
+package com.kcdevdes.poppick.common.security;
+
+import com.kcdevdes.poppick.common.config.JwtConfig;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Google ID token verification against the offline, file-backed key set
+ */
+class CachedJwkSourceTest {
+
+    @TempDir
+    Path directory;
+
+    private Path keySetFile;
+    private RSAKey googleKey;
+    private final List<CachedJwkSource> sources = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        googleKey = new RSAKeyGenerator(2048).keyID("google-1").generate();
+        keySetFile = directory.resolve("google-jwks.json");
+        writeKeySet(googleKey);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sources.forEach(CachedJwkSource::shutdown);
+    }
+
+    @Test
+    void verifiesTokensSignedWithTheFileKeySet() throws Exception {
+        JwtDecoder decoder = decoder(source(new FileJwkSetLoader(keySetFile), null));
+
+        Jwt jwt = decoder.decode(idToken(googleKey));
+
+        assertThat(jwt.getSubject()).isEqualTo("1234567890");
+        assertThat(jwt.getClaimAsString("email")).isEqualTo("viewer@poppick.com");
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnUnknownKey() throws Exception {
+        JwtDecoder decoder = decoder(source(new FileJwkSetLoader(keySetFile), null));
+        RSAKey forged = new RSAKeyGenerator(2048).keyID("google-1").generate();
+
+        assertThatThrownBy(() -> decoder.decode(idToken(forged))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void picksUpRotatedKeysOnUnknownKeyId() throws Exception {
+        JwtDecoder decoder = decoder(source(new FileJwkSetLoader(keySetFile), null));
+        decoder.decode(idToken(googleKey));
+
+        RSAKey rotated = new RSAKeyGenerator(2048).keyID("google-2").generate();
+        writeKeySet(googleKey, rotated);
+
+        assertThat(decoder.decode(idToken(rotated)).getSubject()).isEqualTo("1234567890");
+    }
+
+    @Test
+    void restoresPrivateCacheFileWhenTheOriginIsDown() throws Exception {
+        assumePosix();
+        Path cacheDirectory = privateDirectory("cache");
+        Path cacheFile = cacheDirectory.resolve("google-jwks.json");
+
+        // First node run fetches and persists the key set
+        CachedJwkSource first = source(new FileJwkSetLoader(keySetFile), cacheFile);
+        decoder(first).decode(idToken(googleKey));
+        assertThat(cacheFile).exists();
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(cacheFile))).isEqualTo("rw-------");
+
+        // Restarted node cannot reach the origin
+        JwtDecoder decoder = decoder(source(unreachable(), cacheFile));
+
+        assertThat(decoder.decode(idToken(googleKey)).getSubject()).isEqualTo("1234567890");
+    }
+
+    @Test
+    void ignoresCacheFileInSharedDirectory() throws Exception {
+        assumePosix();
+        Path shared = directory.resolve("shared");
+        Files.createDirectory(shared);
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+        Path cacheFile = shared.resolve("google-jwks.json");
+        Files.writeString(cacheFile, new JWKSet(googleKey.toPublicJWK()).toString());
+        Files.setPosixFilePermissions(cacheFile, PosixFilePermissions.fromString("rw-------"));
+
+        JwtDecoder decoder = decoder(source(unreachable(), cacheFile));
+
+        assertThatThrownBy(() -> decoder.decode(idToken(googleKey))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void ignoresCacheFileReadableByOthers() throws Exception {
+        assumePosix();
+        Path cacheFile = privateDirectory("cache").resolve("google-jwks.json");
+        Files.writeString(cacheFile, new JWKSet(googleKey.toPublicJWK()).toString());
+        Files.setPosixFilePermissions(cacheFile, PosixFilePermissions.fromString("rw-rw-rw-"));
+
+        JwtDecoder decoder = decoder(source(unreachable(), cacheFile));
+
+        assertThatThrownBy(() -> decoder.decode(idToken(googleKey))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void ignoresExpiredCacheFile() throws Exception {
+        assumePosix();
+        Path cacheFile = privateDirectory("cache").resolve("google-jwks.json");
+        Files.writeString(cacheFile, new JWKSet(googleKey.toPublicJWK()).toString());
+        Files.setPosixFilePermissions(cacheFile, PosixFilePermissions.fromString("rw-------"));
+        Files.setLastModifiedTime(cacheFile, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+        JwtDecoder decoder = decoder(source(unreachable(), cacheFile));
+
+        assertThatThrownBy(() -> decoder.decode(idToken(googleKey))).isInstanceOf(JwtException.class);
+    }
+
+    private CachedJwkSource source(JwkSetLoader loader, Path cacheFile) {
+        CachedJwkSource source = new CachedJwkSource(loader, cacheFile, Duration.ofHours(24), Duration.ofHours(1),
+                Duration.ofMinutes(5), Duration.ZERO, Duration.ofSeconds(5));
+        source.initialize();
+        sources.add(source);
+        return source;
+    }
+
+    private static JwtDecoder decoder(CachedJwkSource source) {
+        return new JwtConfig().jwtDecoder(source);
+    }
+
+    private static JwkSetLoader unreachable() {
+        return () -> {
+            throw new IOException("origin unreachable");
+        };
+    }
+
+    private void writeKeySet(RSAKey... keys) throws IOException {
+        List<JWK> publicKeys = new ArrayList<>();
+        for (RSAKey key : keys) {
+            publicKeys.add(key.toPublicJWK());
+        }
+        Files.writeString(keySetFile, new JWKSet(publicKeys).toString());
+    }
+
+    private Path privateDirectory(String name) throws IOException {
+        return Files.createDirectory(directory.resolve(name),
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    }
+
+    private static String idToken(RSAKey key) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("https://accounts.google.com")
+                .subject("1234567890")
+                .claim("email", "viewer@poppick.com")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofMinutes(5))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static void assumePosix() {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    }
+}
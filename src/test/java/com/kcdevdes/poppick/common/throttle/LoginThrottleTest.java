@@ -0,0 +1,87 @@
+package com.kcdevdes.poppick.common.throttle;
+
+import com.kcdevdes.poppick.common.exception.DomainException;
+import com.kcdevdes.poppick.common.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private static final String IP = "203.0.113.7";
+
+    @Test
+    void emailRejectionsDoNotDrainTheIpBucket() {
+        LoginThrottle throttle = throttle(1, 3);
+
+        throttle.acquire("viewer@poppick.com", IP);
+        for (int i = 0; i < 5; i++) {
+            assertTooManyAttempts(() -> throttle.acquire("viewer@poppick.com", IP));
+        }
+
+        // The IP was only charged once
+        throttle.acquire("second@poppick.com", IP);
+        throttle.acquire("third@poppick.com", IP);
+        assertTooManyAttempts(() -> throttle.acquire("fourth@poppick.com", IP));
+
+        LoginThrottle.Stats stats = throttle.getStats();
+        assertThat(stats.allowed()).isEqualTo(3);
+        assertThat(stats.emailRejections()).isEqualTo(5);
+        assertThat(stats.ipRejections()).isEqualTo(1);
+    }
+
+    @Test
+    void ipRejectionsDoNotDrainTheEmailBucket() {
+        LoginThrottle throttle = throttle(2, 1);
+
+        throttle.acquire("first@poppick.com", IP);
+        for (int i = 0; i < 5; i++) {
+            assertTooManyAttempts(() -> throttle.acquire("viewer@poppick.com", IP));
+        }
+
+        // Neither email attempt from the exhausted IP was charged
+        throttle.acquire("viewer@poppick.com", "203.0.113.8");
+        throttle.acquire("viewer@poppick.com", "203.0.113.9");
+    }
+
+    @Test
+    void emailsAreCaseInsensitive() {
+        LoginThrottle throttle = throttle(1, 10);
+
+        throttle.acquire("viewer@poppick.com", IP);
+
+        assertTooManyAttempts(() -> throttle.acquire("Viewer@PopPick.com", IP));
+    }
+
+    @Test
+    void disabledThrottleAllowsEverything() {
+        LoginThrottleProperties properties = properties(1, 1);
+        properties.setEnabled(false);
+        LoginThrottle throttle = new LoginThrottle(properties);
+
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("viewer@poppick.com", IP);
+        }
+    }
+
+    private static LoginThrottle throttle(int emailCapacity, int ipCapacity) {
+        return new LoginThrottle(properties(emailCapacity, ipCapacity));
+    }
+
+    private static LoginThrottleProperties properties(int emailCapacity, int ipCapacity) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setSlots(1 << 16);
+        properties.setEmailCapacity(emailCapacity);
+        properties.setEmailRefillPerMinute(1);
+        properties.setIpCapacity(ipCapacity);
+        properties.setIpRefillPerMinute(1);
+        return properties;
+    }
+
+    private static void assertTooManyAttempts(Runnable attempt) {
+        assertThatThrownBy(attempt::run)
+                .isInstanceOfSatisfying(DomainException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.TOO_MANY_LOGIN_ATTEMPTS));
+    }
+}
@@ -0,0 +1,114 @@
+package com.kcdevdes.poppick.common.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTableTest {
+
+    @Test
+    void allowsUpToCapacity() {
+        TokenBucketTable table = new TokenBucketTable(1024, 5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        }
+
+        assertThat(table.hasToken("viewer@poppick.com")).isFalse();
+        assertThat(table.tryAcquire("viewer@poppick.com")).isFalse();
+    }
+
+    @Test
+    void hasTokenDoesNotConsume() {
+        TokenBucketTable table = new TokenBucketTable(1024, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(table.hasToken("viewer@poppick.com")).isTrue();
+        }
+
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        assertThat(table.hasToken("viewer@poppick.com")).isFalse();
+    }
+
+    @Test
+    void refillsOverTime() throws Exception {
+        // 6000 per minute: one token every 10 ms
+        TokenBucketTable table = new TokenBucketTable(1024, 1, 6000);
+
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        assertThat(table.tryAcquire("viewer@poppick.com")).isFalse();
+
+        Thread.sleep(50);
+
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        assertThat(table.tryAcquire("viewer@poppick.com")).isFalse();
+    }
+
+    @Test
+    void refillNeverExceedsCapacity() throws Exception {
+        TokenBucketTable table = new TokenBucketTable(1024, 2, 6000);
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+
+        Thread.sleep(100);
+
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        assertThat(table.tryAcquire("viewer@poppick.com")).isTrue();
+        assertThat(table.tryAcquire("viewer@poppick.com")).isFalse();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBucketTable table = new TokenBucketTable(1 << 16, 1, 1);
+
+        assertThat(table.tryAcquire("first@poppick.com")).isTrue();
+        assertThat(table.tryAcquire("first@poppick.com")).isFalse();
+
+        assertThat(table.tryAcquire("second@poppick.com")).isTrue();
+    }
+
+    @Test
+    void concurrentAttemptsNeverOverdrawABucket() throws Exception {
+        int capacity = 100;
+        int threads = 16;
+        int attemptsPerThread = 50;
+        TokenBucketTable table = new TokenBucketTable(1024, capacity, 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (table.tryAcquire("viewer@poppick.com")) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> future : futures) {
+                allowed += future.get(30, TimeUnit.SECONDS);
+            }
+
+            // Each of the key's two slots pays for at most `capacity` requests
+            assertThat(allowed).isBetween(capacity, 2 * capacity);
+            assertThat(table.tryAcquire("viewer@poppick.com")).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
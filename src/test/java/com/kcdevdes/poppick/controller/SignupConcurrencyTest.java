@@ -0,0 +1,109 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import com.kcdevdes.poppick.dto.request.SignupRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Duplicate signups racing each other must produce exactly one user and never a 500
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class SignupConcurrencyTest {
+
+    private static final int ATTEMPTS = 16;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelDuplicateSignupsHaveExactlyOneWinner() throws Exception {
+        String email = "race-" + uniqueSuffix() + "@poppick.com";
+
+        List<HttpStatusCode> statuses = signUpConcurrently(i -> new SignupRequestDto(email, "racer" + i, "password-" + i));
+
+        assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        assertThat(statuses).filteredOn(HttpStatus.BAD_REQUEST::equals).hasSize(ATTEMPTS - 1);
+        assertThat(countUsers(email)).isEqualTo(1);
+    }
+
+    @Test
+    void emailsDifferingOnlyByCaseAreDuplicates() throws Exception {
+        String email = "case-" + uniqueSuffix() + "@poppick.com";
+
+        List<HttpStatusCode> statuses = signUpConcurrently(i -> new SignupRequestDto(
+                i % 2 == 0 ? email : email.toUpperCase(Locale.ROOT), "racer" + i, "password-" + i));
+
+        assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        assertThat(statuses).noneMatch(HttpStatusCode::is5xxServerError);
+        assertThat(countUsers(email)).isEqualTo(1);
+    }
+
+    /**
+     * Release every signup at once from its own thread
+     *
+     * @param requests request of the i-th attempt
+     * @return response status of every attempt
+     */
+    private List<HttpStatusCode> signUpConcurrently(IntFunction<SignupRequestDto> requests)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(ATTEMPTS);
+        try {
+            List<Future<HttpStatusCode>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                SignupRequestDto request = requests.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.postForEntity("/v1/auth/signup", request, String.class).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatusCode> statuses = new ArrayList<>();
+            for (Future<HttpStatusCode> future : futures) {
+                statuses.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Short enough for the 50 character email column
+     */
+    private static String uniqueSuffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private int countUsers(String email) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE lower(email) = lower(?)", Integer.class, email);
+    }
+}
@@ -0,0 +1,101 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import com.kcdevdes.poppick.dto.request.LoginRequestDto;
+import com.kcdevdes.poppick.dto.request.SignupRequestDto;
+import com.kcdevdes.poppick.dto.request.UpdateUserRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * If-Match on profile writes: any listed strong ETag of the user's current version matches, weak tags and
+ * tags of other users never do
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class UserConditionalWriteTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String accessToken;
+    private String etag;
+
+    @BeforeEach
+    void setUp() {
+        String email = "match-" + UUID.randomUUID().toString().substring(0, 8) + "@poppick.com";
+        String password = "password-1234";
+        restTemplate.postForEntity("/v1/auth/signup", new SignupRequestDto(email, "matcher", password), String.class);
+        Map<?, ?> tokens = restTemplate.postForObject("/v1/auth/login", new LoginRequestDto(email, password), Map.class);
+        accessToken = (String) tokens.get("accessToken");
+        etag = restTemplate.exchange("/v1/users/me", HttpMethod.GET, new HttpEntity<>(headers(null)), Map.class)
+                .getHeaders().getETag();
+    }
+
+    @Test
+    void matchesAnyListedVersion() {
+        ResponseEntity<Map> response = update("\"1-1000000\", " + etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void staleVersionIsPreconditionFailed() {
+        String current = update(etag).getHeaders().getETag();
+
+        assertThat(update(etag).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(update(current).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void weakTagNeverMatches() {
+        assertThat(update("W/" + etag).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void tagOfAnotherUserNeverMatches() {
+        // Same modification time, different id
+        int separator = etag.indexOf('-');
+        int id = Integer.parseInt(etag.substring(1, separator));
+        String otherUser = "\"" + (id + 1) + etag.substring(separator);
+
+        assertThat(update(otherUser).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void missingOrWildcardIfMatchIsUnconditional() {
+        assertThat(update(null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(update("*").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<Map> update(String ifMatch) {
+        UpdateUserRequestDto request = new UpdateUserRequestDto("renamed-" + UUID.randomUUID().toString().substring(0, 8), null);
+        return restTemplate.exchange("/v1/users/me", HttpMethod.PUT, new HttpEntity<>(request, headers(ifMatch)), Map.class);
+    }
+
+    private HttpHeaders headers(String ifMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        if (ifMatch != null) {
+            headers.set(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return headers;
+    }
+}
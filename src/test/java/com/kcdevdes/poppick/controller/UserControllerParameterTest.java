@@ -0,0 +1,77 @@
+package com.kcdevdes.poppick.controller;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import com.kcdevdes.poppick.dto.request.LoginRequestDto;
+import com.kcdevdes.poppick.dto.request.SignupRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Missing query parameters are client errors, answered with 400 and the usual error body
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class UserControllerParameterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void searchWithoutTermIsBadRequest() {
+        ResponseEntity<Map> response = restTemplate.exchange(
+                "/v1/users", HttpMethod.GET, new HttpEntity<>(bearer(accessToken())), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("message", "Invalid Search Term");
+    }
+
+    @Test
+    void batchWithoutIdsIsBadRequest() {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/v1/users/batch", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("message", "Invalid Batch Size");
+    }
+
+    @Test
+    void batchWithEmptyIdsIsBadRequest() {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/v1/users/batch?ids=", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("message", "Invalid Batch Size");
+    }
+
+    /**
+     * Sign up and log in a fresh user
+     *
+     * @return access token of the user
+     */
+    private String accessToken() {
+        String email = "params-" + UUID.randomUUID().toString().substring(0, 8) + "@poppick.com";
+        String password = "password-1234";
+        restTemplate.postForEntity("/v1/auth/signup", new SignupRequestDto(email, "params", password), String.class);
+        Map<?, ?> tokens = restTemplate.postForObject("/v1/auth/login", new LoginRequestDto(email, password), Map.class);
+        return (String) tokens.get("accessToken");
+    }
+
+    private static HttpHeaders bearer(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        return headers;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kcdevdes.poppick.repository;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User lookups must be served by the indexes of V2 and V3 once the table is large enough for the planner
+ * to prefer them. The statements mirror the SQL issued by {@link UserRepository} and {@link UserRepositoryImpl}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserQueryPlanTest {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (email, username, password, role, oauth_provider, oauth_id) "
+                + "SELECT 'plan-' || i || '@poppick.com', 'fan' || substr(md5(i::text), 1, 12), NULL, 'USER', "
+                + "CASE WHEN i % 2 = 0 THEN 'google' END, CASE WHEN i % 2 = 0 THEN 'g-' || i END "
+                + "FROM generate_series(1, ?) AS i", ROWS);
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'plan-%@poppick.com'");
+    }
+
+    @Test
+    void emailLookupUsesLowerEmailIndex() {
+        assertThat(plan("SELECT * FROM users WHERE lower(email) = lower('Plan-4242@PopPick.com')"))
+                .contains("users_email_lower_key")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void oauthLookupUsesProviderIndex() {
+        assertThat(plan("SELECT * FROM users WHERE oauth_provider = 'google' AND oauth_id = 'g-4242'"))
+                .contains("users_oauth_provider_id_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void batchLookupUsesPrimaryKey() {
+        assertThat(plan("SELECT * FROM users WHERE id = ANY('{11,4242,17017}'::integer[])"))
+                .contains("users_pkey")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void prefixSearchUsesOrderedUsernameIndex() {
+        String term = username(4242).substring(0, 6);
+
+        assertThat(plan("SELECT * FROM users WHERE lower(username) COLLATE \"C\" LIKE lower('" + term + "%') "
+                + "ORDER BY lower(username) COLLATE \"C\", id LIMIT 20"))
+                .contains("users_username_search_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void prefixSearchSeeksPastTheCursor() {
+        String term = username(4242).substring(0, 4);
+
+        assertThat(plan("SELECT * FROM users WHERE lower(username) COLLATE \"C\" LIKE lower('" + term + "%') "
+                + "AND (lower(username) COLLATE \"C\", id) > (lower('" + username(4242) + "'), 4242) "
+                + "ORDER BY lower(username) COLLATE \"C\", id LIMIT 20"))
+                .contains("users_username_search_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void substringSearchUsesTrigramIndex() {
+        String term = username(4242).substring(5, 13);
+
+        assertThat(plan("SELECT * FROM users WHERE lower(username) LIKE lower('%" + term + "%') "
+                + "ORDER BY lower(username) COLLATE \"C\", id LIMIT 20"))
+                .contains("users_username_trgm_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    private String username(int row) {
+        return jdbcTemplate.queryForObject(
+                "SELECT username FROM users WHERE email = ?", String.class, "plan-" + row + "@poppick.com");
+    }
+
+    private String plan(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,166 @@
+package com.kcdevdes.poppick.service;
+
+import com.kcdevdes.poppick.PostgresContainerConfig;
+import com.kcdevdes.poppick.common.provider.JwtProvider;
+import com.kcdevdes.poppick.common.provider.token.TokenClaims;
+import com.kcdevdes.poppick.dto.request.LoginRequestDto;
+import com.kcdevdes.poppick.dto.request.RefreshTokenRequestDto;
+import com.kcdevdes.poppick.dto.request.SignupRequestDto;
+import com.kcdevdes.poppick.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh token rotation, reuse detection and family revocation, over HTTP against PostgreSQL
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(PostgresContainerConfig.class)
+class RefreshTokenRotationTest {
+
+    private static final int ATTEMPTS = 8;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private TokenRevocationProperties tokenRevocationProperties;
+
+    @Test
+    void rotatesRefreshTokens() {
+        String first = login();
+
+        ResponseEntity<Map> rotated = refresh(first);
+        assertThat(rotated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String second = refreshTokenOf(rotated);
+        assertThat(second).isNotEqualTo(first);
+        assertThat(familyOf(second)).isEqualTo(familyOf(first));
+
+        ResponseEntity<Map> rotatedAgain = refresh(second);
+        assertThat(rotatedAgain.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rotatedAgain.getBody()).containsKey("accessToken");
+    }
+
+    @Test
+    void replayedTokenKillsTheFamily() {
+        String first = login();
+        String second = refreshTokenOf(refresh(first));
+
+        // The already rotated token shows up again: it leaked
+        assertThat(refresh(first).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        // Including the legitimate holder's current token
+        assertThat(refresh(second).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void concurrentUsesOfOneTokenHaveOneWinnerAndKillTheFamily() throws Exception {
+        String token = login();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(ATTEMPTS);
+        List<ResponseEntity<Map>> responses = new ArrayList<>();
+        try {
+            List<Future<ResponseEntity<Map>>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return refresh(token);
+                }));
+            }
+            start.countDown();
+            for (Future<ResponseEntity<Map>> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ResponseEntity<Map>> winners = responses.stream()
+                .filter(response -> response.getStatusCode() == HttpStatus.OK)
+                .toList();
+        assertThat(winners).hasSize(1);
+        assertThat(responses).filteredOn(response -> response.getStatusCode() == HttpStatus.UNAUTHORIZED)
+                .hasSize(ATTEMPTS - 1);
+
+        // The losers revoked the family, so the winner's token is dead too
+        assertThat(refresh(refreshTokenOf(winners.get(0))).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void familyRevokedOnOneNodeIsRefusedByAnotherBeforeItPolls() {
+        // A second node sharing the database, loaded before the family is revoked
+        TokenRevocationService otherNode = new TokenRevocationService(
+                tokenRevocationRepository, tokenRevocationProperties, new SimpleMeterRegistry());
+        otherNode.load();
+
+        String first = login();
+        String second = refreshTokenOf(refresh(first));
+        assertThat(refresh(first).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        TokenClaims claims = jwtProvider.parseRefreshToken(second);
+        // The other node has not polled yet, its in-memory view does not know the family is dead
+        assertThat(otherNode.isRevoked(claims.tokenId(), claims.familyId())).isFalse();
+        // Rotation checks the family in the database and refuses anyway
+        assertThat(otherNode.revokeToken(claims.tokenId(), claims.familyId(), LocalDateTime.now().plusDays(1)))
+                .isFalse();
+
+        otherNode.poll();
+        assertThat(otherNode.isRevoked(claims.tokenId(), claims.familyId())).isTrue();
+    }
+
+    /**
+     * Sign up and log in a fresh user
+     *
+     * @return refresh token of the new session
+     */
+    private String login() {
+        String email = "rotate-" + UUID.randomUUID().toString().substring(0, 8) + "@poppick.com";
+        String password = "password-1234";
+        restTemplate.postForEntity("/v1/auth/signup", new SignupRequestDto(email, "rotator", password), String.class);
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+                "/v1/auth/login", new LoginRequestDto(email, password), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return refreshTokenOf(response);
+    }
+
+    private ResponseEntity<Map> refresh(String refreshToken) {
+        RefreshTokenRequestDto request = new RefreshTokenRequestDto();
+        request.setRefreshToken(refreshToken);
+        return restTemplate.postForEntity("/v1/auth/refresh", request, Map.class);
+    }
+
+    private static String refreshTokenOf(ResponseEntity<Map> response) {
+        return (String) response.getBody().get("refreshToken");
+    }
+
+    private String familyOf(String refreshToken) {
+        return jwtProvider.parseRefreshToken(refreshToken).familyId();
+    }
+}